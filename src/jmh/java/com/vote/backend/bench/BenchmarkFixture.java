@@ -0,0 +1,134 @@
+package com.vote.backend.bench;
+
+import com.vote.backend.controller.AdminController;
+import com.vote.backend.dto.VoteSubmitDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.Election;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.repository.CandidateRepository;
+import com.vote.backend.repository.VoteRecordRepository;
+import com.vote.backend.service.*;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * 基准测试用的内存夹具：N 位候选人、已开放的第一轮、带随机票数的内存计票，
+ * 不依赖数据库与 Spring 容器。
+ */
+public class BenchmarkFixture {
+
+    public final List<Candidate> candidates = new ArrayList<>();
+    public final CandidateCatalog candidateCatalog;
+    public final VoteConfigCache voteConfigCache;
+    public final VoteTallyService voteTallyService;
+    public final BallotValidator ballotValidator = new BallotValidator();
+    public final ElectionHotState electionHotState = new ElectionHotState(List.of());
+    public final VoteService voteService;
+    public final QualifyPreviewService qualifyPreviewService;
+    public final AdminController adminController;
+
+    public BenchmarkFixture(int candidateCount, int voters) {
+        Random random = new Random(42);
+        for (int i = 0; i < candidateCount; i++) {
+            Candidate c = new Candidate();
+            c.setId(UUID.nameUUIDFromBytes(("candidate-" + i).getBytes()).toString());
+            c.setElectionId(Election.DEFAULT_ID);
+            c.setName("候选人" + i);
+            c.setTitle("单位" + i);
+            c.setDescription("简介".repeat(100));
+            c.setCategory(i % 4 == 0 ? Candidate.Category.manager : Candidate.Category.director);
+            c.setIsRound2Qualified(i % 2 == 0);
+            candidates.add(c);
+        }
+
+        VoteConfig config = new VoteConfig();
+        config.setCurrentStatus(VoteConfig.Status.round1_voting);
+        config.setRound1DirectorMaxApprove(candidateCount);
+        config.setRound1ManagerMaxApprove(candidateCount);
+        voteConfigCache = new VoteConfigCache(null, null);
+        voteConfigCache.publish(config);
+
+        candidateCatalog = new CandidateCatalog(stub(CandidateRepository.class, Map.of("findByElectionId", candidates)), voteConfigCache);
+
+        // 计数从空库加载，再逐张累加随机选票
+        voteTallyService = new VoteTallyService(
+                stub(VoteRecordRepository.class, Map.of("countAllVotesByRound", List.of(), "findDistinctVoterIdsByRound", List.of())),
+                new PackedBallotStore(null, null, null, voteConfigCache),
+                new CandidateTallyStore(null), voteConfigCache,
+                new TransactionTemplate() {
+                    @Override
+                    public <T> T execute(TransactionCallback<T> action) {
+                        // 空库桩不需要事务
+                        return action.doInTransaction(null);
+                    }
+                });
+        voteTallyService.ensureLoaded(Election.DEFAULT_ID);
+        for (int v = 0; v < voters; v++) {
+            voteTallyService.onBallotCommitted(new BallotCommittedEvent(Election.DEFAULT_ID, voteConfigCache.get(Election.DEFAULT_ID).getCurrentEpoch(), "voter-" + v, 1,
+                    randomVotes(random, candidateCount)));
+        }
+
+        voteService = construct(VoteService.class);
+        qualifyPreviewService = construct(QualifyPreviewService.class);
+        adminController = construct(AdminController.class);
+    }
+
+    /**
+     * 生成一张包含 ballotSize 位候选人的选票
+     */
+    public VoteSubmitDTO ballot(String voterId, int ballotSize) {
+        Map<String, String> votes = new LinkedHashMap<>();
+        String[] types = {"approve", "oppose", "abstain"};
+        for (int i = 0; i < Math.min(ballotSize, candidates.size()); i++) {
+            votes.put(candidates.get(i).getId(), types[i % 3]);
+        }
+        VoteSubmitDTO dto = new VoteSubmitDTO();
+        dto.setVoterId(voterId);
+        dto.setRound(1);
+        dto.setVotes(votes);
+        return dto;
+    }
+
+    private Map<String, VoteRecord.VoteType> randomVotes(Random random, int candidateCount) {
+        Map<String, VoteRecord.VoteType> votes = new HashMap<>();
+        VoteRecord.VoteType[] types = VoteRecord.VoteType.values();
+        for (Candidate c : candidates) {
+            votes.put(c.getId(), types[random.nextInt(types.length)]);
+        }
+        return votes;
+    }
+
+    // 用夹具中已有的对象按参数类型填充构造函数，其余依赖传 null（基准路径不会用到）
+    private <T> T construct(Class<T> type) {
+        Map<Class<?>, Object> available = Map.of(
+                CandidateCatalog.class, candidateCatalog,
+                VoteConfigCache.class, voteConfigCache,
+                VoteTallyService.class, voteTallyService,
+                BallotValidator.class, ballotValidator,
+                ElectionHotState.class, electionHotState);
+        try {
+            Constructor<?> constructor = type.getConstructors()[0];
+            Object[] args = Arrays.stream(constructor.getParameterTypes()).map(available::get).toArray();
+            return type.cast(constructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 按方法名返回固定结果的仓库桩
+    @SuppressWarnings("unchecked")
+    private static <R> R stub(Class<R> repository, Map<String, Object> results) {
+        return (R) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            if (results.containsKey(method.getName())) {
+                return results.get(method.getName());
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package com.vote.backend.bench;
+
+import com.vote.backend.dto.ApiResponse;
+import com.vote.backend.dto.VoteResultDTO;
+import com.vote.backend.dto.VoteSubmitDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.Election;
+import com.vote.backend.service.BallotValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 投票热路径 JMH 基准
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Djmh.include=VotingHotPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VotingHotPathBenchmark {
+
+    @Param({"50", "200", "1000"})
+    public int candidateCount;
+
+    // 选票覆盖的候选人比例（%）
+    @Param({"10", "100"})
+    public int ballotPercent;
+
+    private BenchmarkFixture fixture;
+    private VoteSubmitDTO ballot;
+    private JsonMapper jsonMapper;
+    private Map<String, Object> liveResults;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new BenchmarkFixture(candidateCount, 200);
+        ballot = fixture.ballot("bench-voter", Math.max(1, candidateCount * ballotPercent / 100));
+        jsonMapper = JsonMapper.builder().build();
+        liveResults = fixture.voteService.getLiveResults(Election.DEFAULT_ID);
+    }
+
+    /**
+     * submitVotes 中的选票校验
+     */
+    @Benchmark
+    public BallotValidator.Result validateBallot() {
+        return fixture.ballotValidator.validate(ballot, fixture.voteConfigCache.get(Election.DEFAULT_ID), fixture.candidateCatalog.get(Election.DEFAULT_ID));
+    }
+
+    /**
+     * getLiveResults 的结果组装
+     */
+    @Benchmark
+    public Map<String, Object> liveResults() {
+        return fixture.voteService.getLiveResults(Election.DEFAULT_ID);
+    }
+
+    /**
+     * endRound1 中的晋级排序（两类别全量排序）
+     */
+    @Benchmark
+    public void rankQualifiers(Blackhole bh) {
+        List<Candidate> all = fixture.candidateCatalog.get(Election.DEFAULT_ID).candidates(1);
+        for (Candidate.Category category : Candidate.Category.values()) {
+            bh.consume(all.stream()
+                    .filter(c -> c.getCategory() == category)
+                    .sorted((a, b) -> Long.compare(
+                            fixture.voteTallyService.getApproveCount(Election.DEFAULT_ID, 1, b.getId()),
+                            fixture.voteTallyService.getApproveCount(Election.DEFAULT_ID, 1, a.getId())))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 晋级名单预览（有界 Top-K 选择，与上面的全量排序对比）
+     */
+    @Benchmark
+    public Map<String, Object> qualifyPreview() {
+        return fixture.qualifyPreviewService.preview(Election.DEFAULT_ID, candidateCount / 4, candidateCount / 16);
+    }
+
+    /**
+     * 管理端 getResults 的结果映射
+     */
+    @Benchmark
+    public ApiResponse<List<VoteResultDTO>> adminResults() {
+        return fixture.adminController.getResults(null, 1);
+    }
+
+    /**
+     * 实时结果 ApiResponse 的 JSON 序列化
+     */
+    @Benchmark
+    public byte[] serializeLiveResults() {
+        return jsonMapper.writeValueAsBytes(ApiResponse.success(liveResults));
+    }
+
+    /**
+     * 候选人列表 ApiResponse 的 JSON 序列化
+     */
+    @Benchmark
+    public byte[] serializeCandidates() {
+        return jsonMapper.writeValueAsBytes(ApiResponse.success(fixture.candidateCatalog.get(Election.DEFAULT_ID).candidates(1)));
+    }
+}
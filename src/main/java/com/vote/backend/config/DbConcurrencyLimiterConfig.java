@@ -0,0 +1,117 @@
+package com.vote.backend.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 数据库并发限流
+ * 开启虚拟线程后请求线程数不再受 Tomcat 线程池约束，成千上万的虚拟线程会同时争抢连接池。
+ * 开启后在数据源外包一层公平信号量：获取连接前先拿许可，连接关闭时归还，
+ * 所有仓库与 JdbcTemplate 访问都经过它。一个线程同一时间只持有一个连接，因此不会相互等待死锁。
+ */
+@Configuration
+@ConditionalOnProperty(name = "vote.db.limiter.enabled", havingValue = "true")
+public class DbConcurrencyLimiterConfig {
+
+    @Bean
+    public static BeanPostProcessor dbConcurrencyLimiter(Environment env) {
+        int permits = env.getProperty("vote.db.limiter.max-concurrency", Integer.class,
+                env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long timeoutMs = env.getProperty("vote.db.limiter.acquire-timeout-ms", Long.class, 10000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // 读写分离时路由数据源只分发连接，由主库、副本连接池各自限流
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitingDataSource)
+                        && !(bean instanceof ReadReplicaConfig.ReplicaRoutingDataSource)) {
+                    return new LimitingDataSource(dataSource, permits, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 带并发许可的数据源
+     */
+    static class LimitingDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final long timeoutMs;
+
+        LimitingDataSource(DataSource target, int permits, long timeoutMs) {
+            super(target);
+            this.permits = new Semaphore(permits, true);
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return wrap(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return wrap(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("数据库繁忙，等待连接许可超时");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("等待连接许可被中断", e);
+            }
+        }
+
+        // 连接关闭时归还许可（只归还一次）
+        private Connection wrap(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
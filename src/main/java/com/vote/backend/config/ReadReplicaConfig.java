@@ -0,0 +1,242 @@
+package com.vote.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.transaction.autoconfigure.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 读写分离
+ * 开启后使用两个连接池：主库承担所有写入和未声明的读取；标注了
+ * {@code @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)} 的事务（选票导出、历史批次结果与归档列表、选票审计）
+ * 在开始时从只读副本取连接，事务内的仓库与 JdbcTemplate 访问都使用这个连接。
+ * 只按标签路由而不是按 readOnly：仓库方法默认就是只读事务，而计票、已投票索引、候选人目录、配置快照等内存状态
+ * 必须从主库加载，从滞后的副本加载会永久丢失加载前的增量。
+ * 副本滞后通过心跳检测（建表见 sql/read_replica.sql）：超过 vote.db.replica.max-lag-ms、
+ * 尚未完成首次检测或副本取连接失败时，这些事务自动改用主库。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "vote.db.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * 走只读副本的事务标签
+     */
+    public static final String REPLICA = "replica";
+
+    // 当前线程正在开始一个走副本的事务（连接在事务开始时获取，之后即清除）
+    private static final ThreadLocal<Boolean> REPLICA_REQUESTED = new ThreadLocal<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * 副本连接池不参与按类型注入与数据库健康检查：副本故障时读取回退主库，不应使实例变为不健康
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("vote.db.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment env) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(env.getRequiredProperty("vote.db.replica.url"))
+                .username(env.getProperty("vote.db.replica.username", properties.determineUsername()))
+                .password(env.getProperty("vote.db.replica.password", properties.determinePassword()))
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               Environment env, MeterRegistry registry) {
+        return new ReplicaLagMonitor(primary, replica,
+                env.getProperty("vote.db.replica.max-lag-ms", Long.class, 2000L), registry);
+    }
+
+    /**
+     * 应用使用的数据源（JPA、JdbcTemplate、脚本初始化）
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor) {
+        return new ReplicaRoutingDataSource(primary, replica, monitor);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager();
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * 开始带副本标签的只读事务时标记当前线程，事务连接由此从副本获取
+     */
+    static class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            if (!definition.isReadOnly() || !(definition instanceof TransactionAttribute attribute)
+                    || !attribute.getLabels().contains(REPLICA)) {
+                super.doBegin(transaction, definition);
+                return;
+            }
+            REPLICA_REQUESTED.set(Boolean.TRUE);
+            try {
+                super.doBegin(transaction, definition);
+            } finally {
+                REPLICA_REQUESTED.remove();
+            }
+        }
+    }
+
+    /**
+     * 按当前线程的标记分发连接，副本不可用时回退主库
+     */
+    static class ReplicaRoutingDataSource extends AbstractDataSource {
+
+        private final DataSource primary;
+        private final DataSource replica;
+        private final ReplicaLagMonitor monitor;
+
+        ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+            this.primary = primary;
+            this.replica = replica;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (REPLICA_REQUESTED.get() != null && monitor.isUsable()) {
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    monitor.unavailable(e);
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            if (REPLICA_REQUESTED.get() != null && monitor.isUsable()) {
+                try {
+                    return replica.getConnection(username, password);
+                } catch (SQLException e) {
+                    monitor.unavailable(e);
+                }
+            }
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * 副本滞后检测
+     * 每次检测先在主库写入当前时间，再从副本读回心跳：读到的时间与当前时间之差是复制滞后的上界
+     * （最多多出一个检测周期），因此 max-lag-ms 应大于 check-ms。多实例各自写入，取最新值即可。
+     */
+    public static class ReplicaLagMonitor {
+
+        private static final String BEAT_SQL =
+                "INSERT INTO replica_heartbeat (id, beat_ms) VALUES (1, ?) ON DUPLICATE KEY UPDATE beat_ms = ?";
+
+        private static final String READ_SQL = "SELECT beat_ms FROM replica_heartbeat WHERE id = 1";
+
+        private final JdbcTemplate primary;
+        private final JdbcTemplate replica;
+        private final long maxLagMs;
+        // 最近一次检测到的滞后（毫秒），未知时为 -1
+        private volatile long lagMs = -1;
+        private volatile boolean usable;
+
+        ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs, MeterRegistry registry) {
+            this.primary = new JdbcTemplate(primary);
+            this.replica = new JdbcTemplate(replica);
+            this.maxLagMs = maxLagMs;
+            Gauge.builder("vote.db.replica.lag", this, m -> m.lagMs)
+                    .description("只读副本滞后（毫秒），未知时为 -1")
+                    .register(registry);
+            Gauge.builder("vote.db.replica.usable", this, m -> m.usable ? 1 : 0)
+                    .description("只读副本是否承担读取（滞后超限或不可用时为 0，读取回退主库）")
+                    .register(registry);
+        }
+
+        public boolean isUsable() {
+            return usable;
+        }
+
+        @Scheduled(fixedDelayString = "${vote.db.replica.check-ms:1000}")
+        public void check() {
+            long now = System.currentTimeMillis();
+            try {
+                primary.update(BEAT_SQL, now, now);
+            } catch (DataAccessException e) {
+                log.warn("写入副本心跳失败: {}", e.getMessage());
+            }
+            Long beat;
+            try {
+                beat = replica.query(READ_SQL, rs -> rs.next() ? rs.getLong(1) : null);
+            } catch (DataAccessException e) {
+                unavailable(e);
+                return;
+            }
+            if (beat == null) {
+                lagMs = -1;
+                setUsable(false, "副本尚无心跳");
+                return;
+            }
+            lagMs = Math.max(0, System.currentTimeMillis() - beat);
+            setUsable(lagMs <= maxLagMs, "副本滞后 " + lagMs + " ms");
+        }
+
+        void unavailable(Exception e) {
+            lagMs = -1;
+            setUsable(false, "副本不可用: " + e.getMessage());
+        }
+
+        private void setUsable(boolean value, String reason) {
+            if (usable == value) {
+                return;
+            }
+            usable = value;
+            if (value) {
+                log.info("只读副本恢复，{}", reason);
+            } else {
+                log.warn("{}，读取回退主库", reason);
+            }
+        }
+    }
+}
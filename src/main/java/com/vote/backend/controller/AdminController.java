@@ -3,10 +3,27 @@ package com.vote.backend.controller;
 import com.vote.backend.dto.ApiResponse;
 import com.vote.backend.dto.VoteResultDTO;
 import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.Election;
 import com.vote.backend.entity.VoteConfig;
 import com.vote.backend.repository.CandidateRepository;
 import com.vote.backend.repository.VoteConfigRepository;
-import com.vote.backend.repository.VoteRecordRepository;
+import com.vote.backend.service.AdminJobService;
+import com.vote.backend.service.BallotStore;
+import com.vote.backend.service.CandidateImportService;
+import com.vote.backend.service.BallotJournal;
+import com.vote.backend.service.CandidateBulkService;
+import com.vote.backend.service.CandidateCatalog;
+import com.vote.backend.service.ElectionArchiveService;
+import com.vote.backend.service.JobProgress;
+import com.vote.backend.service.PackedBallotStore;
+import com.vote.backend.service.QualifyPreviewService;
+import com.vote.backend.service.SubmitAdmissionController;
+import com.vote.backend.service.SubmitIdempotencyCache;
+import com.vote.backend.service.VoteConfigCache;
+import com.vote.backend.service.VoteConfigSnapshot;
+import com.vote.backend.service.VoteExportService;
+import com.vote.backend.service.VoteTallyService;
+import com.vote.backend.service.VoterIndexService;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -14,45 +31,72 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * 管理端接口
+ * /api/admin/... 操作默认选举，/api/admin/elections/{electionId}/... 操作指定选举。
+ */
 @RestController
-@RequestMapping("/api/admin")
+@RequestMapping({"/api/admin", "/api/admin/elections/{electionId}"})
 @RequiredArgsConstructor
 public class AdminController {
 
     private final CandidateRepository candidateRepository;
     private final VoteConfigRepository voteConfigRepository;
-    private final VoteRecordRepository voteRecordRepository;
+    private final VoteTallyService voteTallyService;
+    private final VoterIndexService voterIndexService;
+    private final BallotJournal ballotJournal;
+    private final BallotStore ballotStore;
+    private final PackedBallotStore packedBallotStore;
+    private final VoteConfigCache voteConfigCache;
+    private final CandidateCatalog candidateCatalog;
+    private final CandidateBulkService candidateBulkService;
+    private final SubmitAdmissionController submitAdmissionController;
+    private final SubmitIdempotencyCache submitIdempotencyCache;
+    private final VoteExportService voteExportService;
+    private final CandidateImportService candidateImportService;
+    private final AdminJobService adminJobService;
+    private final ElectionArchiveService electionArchiveService;
+    private final QualifyPreviewService qualifyPreviewService;
 
     // ==================== 候选人管理 ====================
 
     @GetMapping("/candidates")
-    public ApiResponse<List<Candidate>> getAllCandidates() {
-        return ApiResponse.success(candidateRepository.findAll());
+    public ApiResponse<List<Candidate>> getAllCandidates(@PathVariable(required = false) Integer electionId) {
+        return ApiResponse.success(candidateRepository.findByElectionId(election(electionId)));
     }
 
     @GetMapping("/candidates/{id}")
-    public ApiResponse<Candidate> getCandidate(@PathVariable String id) {
-        return candidateRepository.findById(id)
+    public ApiResponse<Candidate> getCandidate(@PathVariable(required = false) Integer electionId, @PathVariable String id) {
+        return candidateRepository.findByIdAndElectionId(id, election(electionId))
                 .map(ApiResponse::success)
                 .orElse(ApiResponse.error("候选人不存在"));
     }
 
     @PostMapping("/candidates")
-    public ApiResponse<Candidate> addCandidate(@RequestBody Candidate candidate) {
+    public ApiResponse<Candidate> addCandidate(@PathVariable(required = false) Integer electionId, @RequestBody Candidate candidate) {
+        int election = election(electionId);
         candidate.setId(UUID.randomUUID().toString());
+        candidate.setElectionId(election);
         candidate.setCreatedAt(LocalDateTime.now());
         candidate.setUpdatedAt(LocalDateTime.now());
         candidate.setIsRound2Qualified(false);
-        return ApiResponse.success(candidateRepository.save(candidate));
+        return ApiResponse.success(candidateBulkService.save(candidate));
     }
 
     @PutMapping("/candidates/{id}")
-    public ApiResponse<Candidate> updateCandidate(@PathVariable String id, @RequestBody Candidate candidate) {
-        return candidateRepository.findById(id)
+    public ApiResponse<Candidate> updateCandidate(@PathVariable(required = false) Integer electionId, @PathVariable String id,
+                                                  @RequestBody Candidate candidate) {
+        int election = election(electionId);
+        return candidateRepository.findByIdAndElectionId(id, election)
                 .map(existing -> {
                     existing.setName(candidate.getName());
                     existing.setTitle(candidate.getTitle());
@@ -60,15 +104,14 @@ public class AdminController {
                     existing.setPdfUrl(candidate.getPdfUrl());
                     existing.setCategory(candidate.getCategory());
                     existing.setUpdatedAt(LocalDateTime.now());
-                    return ApiResponse.success(candidateRepository.save(existing));
+                    return ApiResponse.success(candidateBulkService.save(existing));
                 })
                 .orElse(ApiResponse.error("候选人不存在"));
     }
 
     @DeleteMapping("/candidates/{id}")
-    public ApiResponse<Void> deleteCandidate(@PathVariable String id) {
-        if (candidateRepository.existsById(id)) {
-            candidateRepository.deleteById(id);
+    public ApiResponse<Void> deleteCandidate(@PathVariable(required = false) Integer electionId, @PathVariable String id) {
+        if (candidateBulkService.delete(election(electionId), id)) {
             return ApiResponse.success(null);
         }
         return ApiResponse.error("候选人不存在");
@@ -76,31 +119,37 @@ public class AdminController {
 
     // 批量删除候选人
     @DeleteMapping("/candidates/batch")
-    public ApiResponse<Map<String, Object>> batchDeleteCandidates(@RequestBody List<String> ids) {
+    public ApiResponse<Map<String, Object>> batchDeleteCandidates(@PathVariable(required = false) Integer electionId,
+                                                                  @RequestBody List<String> ids) {
+        int election = election(electionId);
         if (ids == null || ids.isEmpty()) {
             return ApiResponse.error("请选择要删除的候选人");
         }
-        int deletedCount = 0;
-        for (String id : ids) {
-            if (candidateRepository.existsById(id)) {
-                candidateRepository.deleteById(id);
-                deletedCount++;
-            }
-        }
+        // 一条 DELETE 语句删除，候选人目录只重建一次
+        int deletedCount = candidateBulkService.deleteAll(election, ids);
         Map<String, Object> result = new HashMap<>();
         result.put("deletedCount", deletedCount);
         return ApiResponse.success("删除成功", result);
     }
 
-    // 清空全部候选人（需要密码验证）
+    // 清空全部候选人（需要密码验证，async=true 时以后台任务执行）
     @DeleteMapping("/candidates/clear-all")
-    public ApiResponse<Map<String, Object>> clearAllCandidates(@RequestBody Map<String, String> body) {
+    public ApiResponse<Map<String, Object>> clearAllCandidates(@PathVariable(required = false) Integer electionId,
+                                                               @RequestBody Map<String, String> body,
+                                                               @RequestParam(defaultValue = "false") boolean async) {
+        int election = election(electionId);
         String password = body.get("password");
         if (!"seasonfair".equals(password)) {
             return ApiResponse.error("密码错误");
         }
-        long count = candidateRepository.count();
-        candidateRepository.deleteAll();
+        if (async) {
+            return submitJob("clear-candidates", () -> doClearAllCandidates(election));
+        }
+        return doClearAllCandidates(election);
+    }
+
+    private ApiResponse<Map<String, Object>> doClearAllCandidates(int election) {
+        int count = candidateBulkService.clear(election);
         Map<String, Object> result = new HashMap<>();
         result.put("deletedCount", count);
         return ApiResponse.success("清空成功", result);
@@ -109,15 +158,15 @@ public class AdminController {
     // ==================== 投票配置 ====================
 
     @GetMapping("/config")
-    public ApiResponse<VoteConfig> getConfig() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<VoteConfig> getConfig(@PathVariable(required = false) Integer electionId) {
+        return voteConfigRepository.findById(election(electionId))
                 .map(ApiResponse::success)
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
     @PutMapping("/config")
-    public ApiResponse<VoteConfig> updateConfig(@RequestBody VoteConfig config) {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<VoteConfig> updateConfig(@PathVariable(required = false) Integer electionId, @RequestBody VoteConfig config) {
+        return voteConfigRepository.findById(election(electionId))
                 .map(existing -> {
                     // 第一轮限票
                     if (config.getRound1DirectorMaxApprove() != null) {
@@ -147,83 +196,95 @@ public class AdminController {
                     if (config.getManagerElectCount() != null) {
                         existing.setManagerElectCount(config.getManagerElectCount());
                     }
-                    return ApiResponse.success(voteConfigRepository.save(existing));
+                    return ApiResponse.success(saveConfig(existing));
                 })
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
+    // 保存配置并发布新的配置快照
+    private VoteConfig saveConfig(VoteConfig config) {
+        VoteConfig saved = voteConfigRepository.save(config);
+        voteConfigCache.publish(saved);
+        return saved;
+    }
+
     // ==================== 轮次控制 ====================
 
     @PostMapping("/round/start-round1")
-    public ApiResponse<Void> startRound1() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<Void> startRound1(@PathVariable(required = false) Integer electionId) {
+        int election = election(electionId);
+        return voteConfigRepository.findById(election)
                 .map(config -> {
                     if (config.getCurrentStatus() != VoteConfig.Status.not_started) {
                         return ApiResponse.<Void>error("当前状态不允许开启第一轮");
                     }
                     config.setCurrentStatus(VoteConfig.Status.round1_voting);
-                    voteConfigRepository.save(config);
+                    saveConfig(config);
+                    voterIndexService.preload(election, 1);
                     return ApiResponse.<Void>success(null);
                 })
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
+    // 结束第一轮并生成晋级名单（async=true 时以后台任务执行）
     @PostMapping("/round/end-round1")
-    public ApiResponse<Map<String, Object>> endRound1() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<Map<String, Object>> endRound1(@PathVariable(required = false) Integer electionId,
+                                                      @RequestParam(defaultValue = "false") boolean async) {
+        int election = election(electionId);
+        if (async) {
+            return submitJob("end-round1", () -> doEndRound1(election));
+        }
+        return doEndRound1(election);
+    }
+
+    private ApiResponse<Map<String, Object>> doEndRound1(int election) {
+        return voteConfigRepository.findById(election)
                 .map(config -> {
                     if (config.getCurrentStatus() != VoteConfig.Status.round1_voting) {
                         return ApiResponse.<Map<String, Object>>error("当前状态不允许结束第一轮");
                     }
                     
-                    // 自动计算晋级名单
-                    Byte round = 1;
-                    List<Object[]> voteStats = voteRecordRepository.countAllVotesByRound(round);
-                    
-                    // 构建 candidateId -> approveCount 映射
-                    Map<String, Long> approveMap = new HashMap<>();
-                    for (Object[] row : voteStats) {
-                        String candidateId = (String) row[0];
-                        String voteType = row[1].toString();
-                        Long count = (Long) row[2];
-                        if ("approve".equals(voteType)) {
-                            approveMap.put(candidateId, count);
-                        }
+                    // 先将日志中尚未落库的选票写入数据库
+                    try {
+                        ballotJournal.flush();
+                    } catch (IOException e) {
+                        return ApiResponse.<Map<String, Object>>error("选票落库失败: " + e.getMessage());
                     }
+                    // 共享计数模式下按计数表的最新汇总排名（含其他实例刚提交的选票）
+                    voteTallyService.reload(election);
+
+                    // 自动计算晋级名单（赞成票取自内存计票，与存储方式无关）
                     
                     // 获取所有候选人并按类别分组
-                    List<Candidate> allCandidates = candidateRepository.findAll();
+                    List<Candidate> allCandidates = candidateRepository.findByElectionId(election);
                     List<Candidate> directors = allCandidates.stream()
                             .filter(c -> c.getCategory() == Candidate.Category.director)
                             .sorted((a, b) -> Long.compare(
-                                    approveMap.getOrDefault(b.getId(), 0L),
-                                    approveMap.getOrDefault(a.getId(), 0L)))
+                                    voteTallyService.getApproveCount(election, 1, b.getId()),
+                                    voteTallyService.getApproveCount(election, 1, a.getId())))
                             .collect(Collectors.toList());
                     List<Candidate> managers = allCandidates.stream()
                             .filter(c -> c.getCategory() == Candidate.Category.manager)
                             .sorted((a, b) -> Long.compare(
-                                    approveMap.getOrDefault(b.getId(), 0L),
-                                    approveMap.getOrDefault(a.getId(), 0L)))
+                                    voteTallyService.getApproveCount(election, 1, b.getId()),
+                                    voteTallyService.getApproveCount(election, 1, a.getId())))
                             .collect(Collectors.toList());
                     
-                    // 重置所有晋级状态
-                    allCandidates.forEach(c -> c.setIsRound2Qualified(false));
-                    
-                    // 设置晋级的常务理事
+                    // 晋级的常务理事与负责人
                     int directorQualifyCount = config.getDirectorQualifyCount();
+                    int managerQualifyCount = config.getManagerQualifyCount();
+                    List<String> qualifiedIds = new ArrayList<>();
                     for (int i = 0; i < Math.min(directorQualifyCount, directors.size()); i++) {
-                        directors.get(i).setIsRound2Qualified(true);
+                        qualifiedIds.add(directors.get(i).getId());
                     }
-                    
-                    // 设置晋级的负责人
-                    int managerQualifyCount = config.getManagerQualifyCount();
                     for (int i = 0; i < Math.min(managerQualifyCount, managers.size()); i++) {
-                        managers.get(i).setIsRound2Qualified(true);
+                        qualifiedIds.add(managers.get(i).getId());
                     }
                     
-                    candidateRepository.saveAll(allCandidates);
+                    // 一条 UPDATE 语句设置晋级名单（其余候选人取消晋级）
+                    candidateBulkService.setRound2Qualified(election, qualifiedIds);
                     config.setCurrentStatus(VoteConfig.Status.round1_ended);
-                    voteConfigRepository.save(config);
+                    saveConfig(config);
                     
                     // 返回晋级统计
                     Map<String, Object> result = new HashMap<>();
@@ -234,68 +295,87 @@ public class AdminController {
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
-    @PutMapping("/round2/qualified")
-    public ApiResponse<Void> setRound2Qualified(@RequestBody List<String> candidateIds) {
-        // 先清除所有候选人的晋级状态
-        List<Candidate> allCandidates = candidateRepository.findAll();
-        for (Candidate c : allCandidates) {
-            c.setIsRound2Qualified(false);
+    // 按任意名额预览第一轮晋级名单（内存计票，不访问数据库，未指定的名额取当前配置），末位同票单独列为并列组
+    @GetMapping("/round1/qualify-preview")
+    public ApiResponse<Map<String, Object>> previewQualifiers(@PathVariable(required = false) Integer electionId,
+                                                              @RequestParam(required = false) Integer directorQualifyCount,
+                                                              @RequestParam(required = false) Integer managerQualifyCount) {
+        int election = election(electionId);
+        VoteConfigSnapshot config = voteConfigCache.get(election);
+        int directors = directorQualifyCount != null ? directorQualifyCount : config.getDirectorQualifyCount();
+        int managers = managerQualifyCount != null ? managerQualifyCount : config.getManagerQualifyCount();
+        if (directors < 0 || managers < 0) {
+            return ApiResponse.error("晋级名额不能为负数");
         }
-        candidateRepository.saveAll(allCandidates);
+        return ApiResponse.success(qualifyPreviewService.preview(election, directors, managers));
+    }
 
-        // 设置晋级的候选人
-        List<Candidate> qualifiedCandidates = candidateRepository.findAllById(candidateIds);
-        for (Candidate c : qualifiedCandidates) {
-            c.setIsRound2Qualified(true);
-        }
-        candidateRepository.saveAll(qualifiedCandidates);
+    @PutMapping("/round2/qualified")
+    public ApiResponse<Void> setRound2Qualified(@PathVariable(required = false) Integer electionId, @RequestBody List<String> candidateIds) {
+        // 列表中的候选人晋级，其余取消（忽略不属于该选举的ID）
+        candidateBulkService.setRound2Qualified(election(electionId), candidateIds);
 
         return ApiResponse.success(null);
     }
 
     @PostMapping("/round/start-round2")
-    public ApiResponse<Void> startRound2() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<Void> startRound2(@PathVariable(required = false) Integer electionId) {
+        int election = election(electionId);
+        return voteConfigRepository.findById(election)
                 .map(config -> {
                     if (config.getCurrentStatus() != VoteConfig.Status.round1_ended) {
                         return ApiResponse.<Void>error("当前状态不允许开启第二轮");
                     }
                     config.setCurrentStatus(VoteConfig.Status.round2_voting);
-                    voteConfigRepository.save(config);
+                    saveConfig(config);
+                    voterIndexService.preload(election, 2);
                     return ApiResponse.<Void>success(null);
                 })
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
     @PostMapping("/round/end-round2")
-    public ApiResponse<Void> endRound2() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<Void> endRound2(@PathVariable(required = false) Integer electionId) {
+        return voteConfigRepository.findById(election(electionId))
                 .map(config -> {
                     if (config.getCurrentStatus() != VoteConfig.Status.round2_voting) {
                         return ApiResponse.<Void>error("当前状态不允许结束第二轮");
                     }
                     config.setCurrentStatus(VoteConfig.Status.round2_ended);
-                    voteConfigRepository.save(config);
+                    saveConfig(config);
                     return ApiResponse.<Void>success(null);
                 })
                 .orElse(ApiResponse.error("配置不存在"));
     }
 
-    // 重置投票（回到未开始状态）
+    // 重置投票（归档当前批次并回到未开始状态，async=true 时以后台任务执行）
     @PostMapping("/round/reset")
-    public ApiResponse<Void> resetRound() {
-        return voteConfigRepository.findTopByOrderByIdAsc()
+    public ApiResponse<?> resetRound(@PathVariable(required = false) Integer electionId, @RequestParam(defaultValue = "false") boolean async) {
+        int election = election(electionId);
+        if (async) {
+            return submitJob("reset", () -> doResetRound(election));
+        }
+        return doResetRound(election);
+    }
+
+    private ApiResponse<Void> doResetRound(int election) {
+        return voteConfigRepository.findById(election)
                 .map(config -> {
-                    config.setCurrentStatus(VoteConfig.Status.not_started);
-                    voteConfigRepository.save(config);
-                    
-                    // 清空所有投票记录
-                    voteRecordRepository.deleteAll();
+                    // 先将日志中尚未落库的选票写入数据库，随当前批次一起归档
+                    try {
+                        ballotJournal.flush();
+                    } catch (IOException e) {
+                        return ApiResponse.<Void>error("选票落库失败: " + e.getMessage());
+                    }
+
+                    // 归档当前批次并切换到新批次（只更新配置，不删除选票），再清空内存状态
+                    voteConfigCache.publish(electionArchiveService.archiveAndAdvance(config));
+                    voteTallyService.reset(election);
+                    voterIndexService.reset(election);
+                    submitIdempotencyCache.clear(election + ":");
                     
                     // 重置所有候选人的第二轮资格
-                    List<Candidate> candidates = candidateRepository.findAll();
-                    candidates.forEach(c -> c.setIsRound2Qualified(false));
-                    candidateRepository.saveAll(candidates);
+                    candidateBulkService.clearRound2Qualified(election);
                     
                     return ApiResponse.<Void>success(null);
                 })
@@ -305,33 +385,21 @@ public class AdminController {
     // ==================== 投票结果 ====================
 
     @GetMapping("/results/{round}")
-    public ApiResponse<List<VoteResultDTO>> getResults(@PathVariable Integer round) {
-        Byte roundByte = round.byteValue();
-        List<Candidate> candidates = candidateRepository.findAll();
-        
-        // 一次性查询所有投票统计（优化N+1问题）
-        List<Object[]> voteStats = voteRecordRepository.countAllVotesByRound(roundByte);
-        
-        // 构建 candidateId -> {voteType -> count} 的映射
-        Map<String, Map<String, Long>> statsMap = new HashMap<>();
-        for (Object[] row : voteStats) {
-            String candidateId = (String) row[0];
-            // voteType 是枚举，需要转成字符串
-            String voteType = row[1] != null ? row[1].toString() : "";
-            Long count = (Long) row[2];
-            statsMap.computeIfAbsent(candidateId, k -> new HashMap<>()).put(voteType, count);
-        }
+    public ApiResponse<List<VoteResultDTO>> getResults(@PathVariable(required = false) Integer electionId, @PathVariable Integer round) {
+        int election = election(electionId);
+        List<Candidate> candidates = candidateCatalog.get(election).candidates(1);
 
+        // 计数直接读取内存计票，不再执行 GROUP BY 统计
         List<VoteResultDTO> results = candidates.stream().map(c -> {
             VoteResultDTO dto = new VoteResultDTO();
             dto.setCandidateId(c.getId());
             dto.setCandidateName(c.getName());
             dto.setCategory(c.getCategory() != null ? c.getCategory().name() : null);
             
-            Map<String, Long> counts = statsMap.getOrDefault(c.getId(), Map.of());
-            dto.setApproveCount(counts.getOrDefault("approve", 0L));
-            dto.setOpposeCount(counts.getOrDefault("oppose", 0L));
-            dto.setAbstainCount(counts.getOrDefault("abstain", 0L));
+            VoteTallyService.Counts counts = voteTallyService.getCounts(election, round, c.getId());
+            dto.setApproveCount(counts.approve());
+            dto.setOpposeCount(counts.oppose());
+            dto.setAbstainCount(counts.abstain());
             return dto;
         }).sorted((a, b) -> Long.compare(b.getApproveCount(), a.getApproveCount()))
           .collect(Collectors.toList());
@@ -339,6 +407,102 @@ public class AdminController {
         return ApiResponse.success(results);
     }
 
+    // 导出某轮投票结果（Excel）
+    @GetMapping("/results/{round}/export")
+    public void exportResults(@PathVariable(required = false) Integer electionId, @PathVariable Integer round,
+                              HttpServletResponse response) throws IOException {
+        int election = election(electionId);
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=round" + round + "_results.xlsx");
+        voteExportService.writeResults(election, round, response.getOutputStream());
+    }
+
+    // 导出某轮原始选票（Excel，每位投票人一行，流式读取）
+    @GetMapping("/ballots/{round}/export")
+    public void exportBallots(@PathVariable(required = false) Integer electionId, @PathVariable Integer round,
+                              HttpServletResponse response) throws IOException {
+        int election = election(electionId);
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=round" + round + "_ballots.xlsx");
+        voteExportService.writeBallots(election, round, response.getOutputStream());
+    }
+
+    // 以后台任务导出某轮原始选票，完成后通过 /api/admin/jobs/{id}/download 下载
+    @PostMapping("/ballots/{round}/export")
+    public ApiResponse<Map<String, Object>> exportBallotsAsync(@PathVariable(required = false) Integer electionId, @PathVariable Integer round) {
+        int election = election(electionId);
+        return submitJob("export-ballots", progress -> {
+            Path file = Files.createTempFile("round" + round + "_ballots", ".xlsx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                voteExportService.writeBallots(election, round, out, progress);
+            } catch (Exception e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return new AdminJobService.JobFile(file, "round" + round + "_ballots.xlsx");
+        });
+    }
+
+    // 查询某投票人某轮的选票（审计用，epoch 为空时查询当前批次）
+    @GetMapping("/ballots/{round}/{voterId}")
+    public ApiResponse<Map<String, String>> getBallot(@PathVariable(required = false) Integer electionId, @PathVariable Integer round,
+                                                      @PathVariable String voterId,
+                                                      @RequestParam(required = false) Integer epoch) {
+        int election = election(electionId);
+        int e = epoch != null ? epoch : voteConfigCache.get(election).getCurrentEpoch();
+        return ballotStore.findBallot(election, e, voterId, round)
+                .map(b -> {
+                    Map<String, String> votes = new LinkedHashMap<>();
+                    b.votes().forEach((candidateId, voteType) -> votes.put(candidateId, voteType.name()));
+                    return ApiResponse.success(votes);
+                })
+                .orElse(ApiResponse.error("未找到该投票人的选票"));
+    }
+
+    // ==================== 选举归档 ====================
+
+    // 当前批次与已归档的批次
+    @GetMapping("/archives")
+    public ApiResponse<Map<String, Object>> getArchives(@PathVariable(required = false) Integer electionId) {
+        int election = election(electionId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("currentEpoch", voteConfigCache.get(election).getCurrentEpoch());
+        result.put("archives", electionArchiveService.list(election));
+        return ApiResponse.success(result);
+    }
+
+    // 指定批次某轮的结果（从该批次选票统计）
+    @GetMapping("/archives/{epoch}/results/{round}")
+    public ApiResponse<List<VoteResultDTO>> getArchivedResults(@PathVariable(required = false) Integer electionId, @PathVariable Integer epoch,
+                                                               @PathVariable Integer round) {
+        return ApiResponse.success(electionArchiveService.getResults(election(electionId), epoch, round));
+    }
+
+    // ==================== 运行指标 ====================
+
+    // 投票提交准入控制指标（并发上限、排队数、拒绝数、等待时间）
+    @GetMapping("/metrics/admission")
+    public ApiResponse<Map<String, Object>> getAdmissionMetrics() {
+        return ApiResponse.success(submitAdmissionController.getMetrics());
+    }
+
+    // ==================== 存储迁移 ====================
+
+    // 将 vote_record 中的记录迁移为压缩选票（可重复执行）
+    @PostMapping("/storage/migrate-packed")
+    public ApiResponse<Map<Integer, Integer>> migrateToPacked(@PathVariable(required = false) Integer electionId) {
+        return ApiResponse.success("迁移完成", packedBallotStore.migrateFromRows(election(electionId)));
+    }
+
+    // 按已有选票重建共享计数表中当前批次的计数（开启共享计数前执行，执行期间不应有选票写入）
+    @PostMapping("/tally/rebuild")
+    public ApiResponse<Map<Integer, Integer>> rebuildTally(@PathVariable(required = false) Integer electionId) {
+        int election = election(electionId);
+        Map<Integer, Integer> counted = ballotStore.rebuildTally(election);
+        voteTallyService.reset(election);
+        return ApiResponse.success("重建完成", counted);
+    }
+
     // ==================== Excel 模板下载与导入 ====================
 
     @GetMapping("/candidates/template")
@@ -379,81 +543,88 @@ public class AdminController {
         }
     }
 
+    // 导入候选人（async=true 时以后台任务执行，结果中的逐行错误通过任务查询获取）
     @PostMapping("/candidates/import")
-    public ApiResponse<Map<String, Object>> importCandidates(@RequestParam("file") MultipartFile file) {
+    public ApiResponse<Map<String, Object>> importCandidates(@PathVariable(required = false) Integer electionId,
+                                                             @RequestParam("file") MultipartFile file,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
+        int election = election(electionId);
         if (file.isEmpty()) {
             return ApiResponse.error("请选择文件");
         }
 
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-
-            // 获取已存在的候选人姓名（用于去重）
-            Set<String> existingNames = candidateRepository.findAll().stream()
-                    .map(Candidate::getName)
-                    .collect(Collectors.toSet());
-
-            List<Candidate> toImport = new ArrayList<>();
-            List<String> skipped = new ArrayList<>();
-            int successCount = 0;
-
-            // 从第二行开始（跳过表头）
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-
-                String name = getCellStringValue(row.getCell(0));
-                if (name == null || name.trim().isEmpty()) continue;
-
-                // 去重检查
-                if (existingNames.contains(name.trim())) {
-                    skipped.add(name.trim());
-                    continue;
+        Path temp;
+        try {
+            // 上传内容在请求线程内落盘，请求结束后临时上传文件即被清理
+            temp = Files.createTempFile("candidate-import", ".xlsx");
+            file.transferTo(temp);
+        } catch (IOException e) {
+            return ApiResponse.error("导入失败: " + e.getMessage());
+        }
+        if (async) {
+            ApiResponse<Map<String, Object>> response = submitJob("import-candidates", progress -> {
+                try {
+                    return importCandidates(election, temp, progress);
+                } finally {
+                    Files.deleteIfExists(temp);
                 }
+            });
+            if (!response.isSuccess()) {
+                deleteQuietly(temp);
+            }
+            return response;
+        }
+        try {
+            return ApiResponse.success(importCandidates(election, temp, JobProgress.NONE));
+        } catch (Exception e) {
+            return ApiResponse.error("导入失败: " + e.getMessage());
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
 
-                Candidate candidate = new Candidate();
-                candidate.setId(UUID.randomUUID().toString());
-                candidate.setName(name.trim());
-                candidate.setTitle(getCellStringValue(row.getCell(1)));
-                candidate.setDescription(getCellStringValue(row.getCell(2)));
+    private Map<String, Object> importCandidates(int election, Path file, JobProgress progress) throws Exception {
+        // 流式解析并分批写入，逐行错误随结果返回；提交后候选人目录重建一次
+        return candidateImportService.importCandidates(election, file, progress);
+    }
 
-                String category = getCellStringValue(row.getCell(3));
-                candidate.setCategory("manager".equalsIgnoreCase(category) ? Candidate.Category.manager : Candidate.Category.director);
+    /**
+     * 路径中的选举ID，未指定时为默认选举；选举不存在时抛出 {@link com.vote.backend.service.ElectionNotFoundException}
+     */
+    private int election(Integer electionId) {
+        int id = electionId != null ? electionId : Election.DEFAULT_ID;
+        voteConfigCache.get(id);
+        return id;
+    }
 
-                candidate.setPdfUrl(getCellStringValue(row.getCell(4)));
-                candidate.setIsRound2Qualified(false);
-                candidate.setCreatedAt(LocalDateTime.now());
-                candidate.setUpdatedAt(LocalDateTime.now());
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 临时目录由系统定期清理
+        }
+    }
 
-                toImport.add(candidate);
-                existingNames.add(name.trim()); // 防止文件内重复
-                successCount++;
-            }
+    // ==================== 后台任务 ====================
 
-            // 批量保存
-            if (!toImport.isEmpty()) {
-                candidateRepository.saveAll(toImport);
+    /**
+     * 将同步管理操作作为后台任务提交，操作返回失败时任务记为失败
+     */
+    private <T> ApiResponse<Map<String, Object>> submitJob(String type, Supplier<ApiResponse<T>> operation) {
+        return submitJob(type, progress -> {
+            ApiResponse<T> response = operation.get();
+            if (!response.isSuccess()) {
+                throw new IllegalStateException(response.getMessage());
             }
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("successCount", successCount);
-            result.put("skippedCount", skipped.size());
-            result.put("skippedNames", skipped);
-
-            return ApiResponse.success(result);
-
-        } catch (Exception e) {
-            return ApiResponse.error("导入失败: " + e.getMessage());
-        }
+            return response.getData();
+        });
     }
 
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) return null;
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
+    private ApiResponse<Map<String, Object>> submitJob(String type, AdminJobService.Task task) {
+        try {
+            return ApiResponse.success("任务已提交", adminJobService.submit(type, task).toView());
+        } catch (IllegalStateException e) {
+            return ApiResponse.error(e.getMessage());
+        }
     }
 }
@@ -0,0 +1,63 @@
+package com.vote.backend.controller;
+
+import com.vote.backend.dto.ApiResponse;
+import com.vote.backend.service.AdminJobService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 后台管理任务查询、取消与结果下载
+ */
+@RestController
+@RequestMapping("/api/admin/jobs")
+@RequiredArgsConstructor
+public class AdminJobController {
+
+    private final AdminJobService adminJobService;
+
+    // 最近的任务（新的在前）
+    @GetMapping
+    public ApiResponse<List<Map<String, Object>>> listJobs() {
+        return ApiResponse.success(adminJobService.list().stream().map(AdminJobService.Job::toView).toList());
+    }
+
+    // 任务进度与结果
+    @GetMapping("/{id}")
+    public ApiResponse<Map<String, Object>> getJob(@PathVariable String id) {
+        return adminJobService.get(id)
+                .map(job -> ApiResponse.success(job.toView()))
+                .orElse(ApiResponse.error("任务不存在"));
+    }
+
+    // 取消任务
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> cancelJob(@PathVariable String id) {
+        if (!adminJobService.cancel(id)) {
+            return ApiResponse.error("任务不存在或已结束");
+        }
+        return ApiResponse.success("已请求取消", null);
+    }
+
+    // 下载任务生成的文件
+    @GetMapping("/{id}/download")
+    public void download(@PathVariable String id, HttpServletResponse response) throws IOException {
+        AdminJobService.JobFile file = adminJobService.get(id).flatMap(AdminJobService.Job::getFile).orElse(null);
+        if (file == null || !Files.exists(file.path())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "任务文件不存在");
+            return;
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename="
+                + URLEncoder.encode(file.filename(), StandardCharsets.UTF_8));
+        response.setContentLengthLong(Files.size(file.path()));
+        Files.copy(file.path(), response.getOutputStream());
+    }
+}
@@ -0,0 +1,55 @@
+package com.vote.backend.controller;
+
+import com.vote.backend.dto.ApiResponse;
+import com.vote.backend.entity.Election;
+import com.vote.backend.service.ElectionHotState;
+import com.vote.backend.service.ElectionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 选举管理接口
+ * 单个选举的候选人、配置、轮次与结果接口位于 /api/admin/elections/{electionId}/...（见 {@link AdminController}）。
+ */
+@RestController
+@RequestMapping("/api/admin/elections")
+@RequiredArgsConstructor
+public class ElectionController {
+
+    private final ElectionService electionService;
+    private final ElectionHotState electionHotState;
+
+    @GetMapping
+    public ApiResponse<List<Election>> listElections() {
+        return ApiResponse.success(electionService.list());
+    }
+
+    // 新建选举（copyFrom 为要复制限票与名额设置的选举ID，可选）
+    @PostMapping
+    public ApiResponse<Election> createElection(@RequestBody Map<String, Object> body) {
+        Object name = body.get("name");
+        if (name == null || name.toString().isBlank()) {
+            return ApiResponse.error("请填写选举名称");
+        }
+        if (name.toString().length() > 100) {
+            return ApiResponse.error("选举名称超过 100 个字符");
+        }
+        Object copyFrom = body.get("copyFrom");
+        Integer copyFromId;
+        try {
+            copyFromId = copyFrom == null ? null : Integer.valueOf(copyFrom.toString());
+        } catch (NumberFormatException e) {
+            return ApiResponse.error("copyFrom 不是有效的选举ID");
+        }
+        return ApiResponse.success(electionService.create(name.toString().trim(), copyFromId));
+    }
+
+    // 各选举的内存状态（估算大小、最近访问时间）与内存预算
+    @GetMapping("/hot-state")
+    public ApiResponse<Map<String, Object>> getHotState() {
+        return ApiResponse.success(electionHotState.getStats());
+    }
+}
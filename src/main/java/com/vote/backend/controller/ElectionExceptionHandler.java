@@ -0,0 +1,20 @@
+package com.vote.backend.controller;
+
+import com.vote.backend.dto.ApiResponse;
+import com.vote.backend.service.ElectionNotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 请求的选举不存在时返回 404
+ */
+@RestControllerAdvice
+public class ElectionExceptionHandler {
+
+    @ExceptionHandler(ElectionNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleElectionNotFound(ElectionNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+    }
+}
@@ -2,34 +2,67 @@ package com.vote.backend.controller;
 
 import com.vote.backend.dto.ApiResponse;
 import com.vote.backend.dto.VoteSubmitDTO;
-import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.Election;
 import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.service.LiveResultsBroadcaster;
+import com.vote.backend.service.RenderedResponseCache;
+import com.vote.backend.service.SubmitAdmissionController;
+import com.vote.backend.service.SubmitIdempotencyCache;
+import com.vote.backend.service.VoteConfigSnapshot;
+import com.vote.backend.service.VoteMetrics;
 import com.vote.backend.service.VoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 投票端接口（供前端调用）
+ * /api/vote/... 访问默认选举，/api/elections/{electionId}/vote/... 访问指定选举。
  */
 @RestController
-@RequestMapping("/api/vote")
+@RequestMapping({"/api/vote", "/api/elections/{electionId}/vote"})
 @RequiredArgsConstructor
 public class VoteController {
 
+    // 客户端幂等键请求头，网络重试时携带相同的值
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final VoteService voteService;
+    private final LiveResultsBroadcaster liveResultsBroadcaster;
+    private final RenderedResponseCache renderedResponseCache;
+    private final SubmitAdmissionController submitAdmissionController;
+    private final VoteMetrics voteMetrics;
+    private final SubmitIdempotencyCache submitIdempotencyCache;
 
     /**
-     * 获取当前投票状态和配置
+     * 获取当前投票状态和配置（按配置版本预渲染，支持 ETag 与 gzip）
      */
     @GetMapping("/status")
-    public ApiResponse<Map<String, Object>> getStatus() {
-        VoteConfig config = voteService.getVoteConfig();
-        
+    public ResponseEntity<byte[]> getStatus(
+            @PathVariable(required = false) Integer electionId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        int election = election(electionId);
+        VoteConfigSnapshot config = voteService.getVoteConfig(election);
+        RenderedResponseCache.Rendered rendered =
+                renderedResponseCache.render(election, "status", config.getVersion(), () -> buildStatus(config));
+        return renderedResponseCache.respond(rendered, ifNoneMatch, acceptEncoding);
+    }
+
+    private ApiResponse<Map<String, Object>> buildStatus(VoteConfigSnapshot config) {
         Map<String, Object> data = new HashMap<>();
         data.put("currentStatus", config.getCurrentStatus().name());
         
@@ -59,12 +92,19 @@ public class VoteController {
     }
 
     /**
-     * 获取候选人列表
+     * 获取候选人列表（按候选人目录版本预渲染，支持 ETag 与 gzip）
      */
     @GetMapping("/candidates")
-    public ApiResponse<List<Candidate>> getCandidates(@RequestParam(defaultValue = "1") Integer round) {
-        List<Candidate> candidates = voteService.getCandidates(round);
-        return ApiResponse.success(candidates);
+    public ResponseEntity<byte[]> getCandidates(
+            @PathVariable(required = false) Integer electionId,
+            @RequestParam(defaultValue = "1") Integer round,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        int election = election(electionId);
+        int r = round == 1 ? 1 : 2;
+        RenderedResponseCache.Rendered rendered = renderedResponseCache.render(election, "candidates-" + r,
+                voteService.getCandidatesVersion(election), () -> ApiResponse.success(voteService.getCandidates(election, r)));
+        return renderedResponseCache.respond(rendered, ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -72,9 +112,10 @@ public class VoteController {
      */
     @GetMapping("/check")
     public ApiResponse<Map<String, Object>> checkVoteStatus(
+            @PathVariable(required = false) Integer electionId,
             @RequestParam String voterId,
             @RequestParam Integer round) {
-        boolean hasVoted = voteService.hasVoted(voterId, round);
+        boolean hasVoted = voteService.hasVoted(election(electionId), voterId, round);
         
         Map<String, Object> data = new HashMap<>();
         data.put("hasVoted", hasVoted);
@@ -83,15 +124,54 @@ public class VoteController {
     }
 
     /**
-     * 提交投票
+     * 提交投票（幂等，经准入控制，繁忙时返回 429/503 与 Retry-After）
+     * 幂等键按选举、投票人与轮次隔离；未携带幂等键时以投票人与轮次作为隐式键，内容相同的重试同样直接返回原结果。
+     * 重复请求在准入控制之前处理，不占用提交并发。
      */
     @PostMapping("/submit")
-    public ApiResponse<Void> submitVotes(@Valid @RequestBody VoteSubmitDTO dto) {
+    public ResponseEntity<ApiResponse<Void>> submitVotes(
+            @PathVariable(required = false) Integer electionId,
+            @Valid @RequestBody VoteSubmitDTO dto,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        int election = election(electionId);
+        boolean explicitKey = idempotencyKey != null && !idempotencyKey.isBlank();
+        // 以选举ID开头，重置选举时按前缀清除
+        String key = election + ":" + dto.getVoterId() + ':' + dto.getRound() + ':' + (explicitKey ? idempotencyKey : "");
         try {
-            voteService.submitVotes(dto);
-            return ApiResponse.success("投票成功", null);
+            return submitIdempotencyCache.execute(key, fingerprint(dto.getVotes()),
+                    () -> admitAndSubmit(election, dto), response -> response.getBody().isSuccess());
+        } catch (SubmitIdempotencyCache.KeyConflictException e) {
+            if (!explicitKey) {
+                // 同一投票人提交了不同内容的选票，按普通提交处理（通常返回已投票）
+                return admitAndSubmit(election, dto);
+            }
+            return ResponseEntity.unprocessableEntity().body(ApiResponse.error(e.getMessage()));
+        } catch (SubmitIdempotencyCache.WaitTimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<Void>> admitAndSubmit(int election, VoteSubmitDTO dto) {
+        long start = System.nanoTime();
+        SubmitAdmissionController.Permit permit = submitAdmissionController.acquire();
+        voteMetrics.stage(VoteMetrics.Stage.admission, start);
+        if (!permit.isAdmitted()) {
+            HttpStatus status = permit.outcome() == SubmitAdmissionController.Outcome.queue_full
+                    ? HttpStatus.TOO_MANY_REQUESTS
+                    : HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(permit.retryAfterSeconds()))
+                    .body(ApiResponse.error("当前投票人数较多，请稍后重试"));
+        }
+        try {
+            voteService.submitVotes(election, dto);
+            return ResponseEntity.ok(ApiResponse.success("投票成功", null));
         } catch (RuntimeException e) {
-            return ApiResponse.error(e.getMessage());
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } finally {
+            submitAdmissionController.release(permit);
         }
     }
 
@@ -99,7 +179,37 @@ public class VoteController {
      * 获取实时投票结果（供大屏展示使用）
      */
     @GetMapping("/live-results")
-    public ApiResponse<Map<String, Object>> getLiveResults() {
-        return ApiResponse.success(voteService.getLiveResults());
+    public ApiResponse<Map<String, Object>> getLiveResults(@PathVariable(required = false) Integer electionId) {
+        return ApiResponse.success(voteService.getLiveResults(election(electionId)));
+    }
+
+    /**
+     * 实时投票结果推送流（SSE，首次为完整快照，之后为增量）
+     */
+    @GetMapping(value = "/live-results/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLiveResults(@PathVariable(required = false) Integer electionId) {
+        return liveResultsBroadcaster.subscribe(election(electionId));
+    }
+
+    private static int election(Integer electionId) {
+        return electionId != null ? electionId : Election.DEFAULT_ID;
+    }
+
+    /**
+     * 选票内容指纹：按候选人ID排序后的规范编码的 SHA-256，与提交时的键值顺序无关，按内容比较
+     */
+    private static String fingerprint(Map<String, String> votes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(votes).forEach((candidateId, voteType) -> {
+                digest.update(candidateId.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(String.valueOf(voteType).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            });
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.vote.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 压缩选票的候选人排列（按选举编号，只包含该选举的候选人）
+ */
+@Data
+@Entity
+@Table(name = "ballot_layout")
+@IdClass(BallotLayout.Key.class)
+public class BallotLayout {
+
+    @Id
+    @Column(name = "election_id")
+    private Integer electionId;
+
+    @Id
+    private Integer version;
+
+    // 按位置排列的候选人ID，逗号分隔
+    @Column(name = "candidate_ids", nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String candidateIds;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @Data
+    public static class Key implements Serializable {
+        private Integer electionId;
+        private Integer version;
+    }
+}
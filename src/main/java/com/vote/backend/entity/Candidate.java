@@ -12,6 +12,9 @@ public class Candidate {
     @Id
     private String id;
 
+    @Column(name = "election_id", nullable = false)
+    private Integer electionId;
+
     @Column(nullable = false, length = 100)
     private String name;
 
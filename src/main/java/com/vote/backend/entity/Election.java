@@ -0,0 +1,33 @@
+package com.vote.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 选举（一次会议的投票活动）
+ * 配置（vote_config.id 与选举ID相同）、候选人与选票均按选举隔离。
+ */
+@Data
+@Entity
+@Table(name = "election")
+public class Election {
+
+    // 未指定选举的旧接口使用的默认选举
+    public static final int DEFAULT_ID = 1;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.vote.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 选举归档：重置投票时记录被归档的批次，该批次的选票仍保留在 vote_record / packed_ballot 中
+ */
+@Data
+@Entity
+@Table(name = "election_archive", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"election_id", "epoch"})
+})
+public class ElectionArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "election_id", nullable = false)
+    private Integer electionId;
+
+    // 被归档的批次，对应选票的 epoch
+    @Column(nullable = false)
+    private Integer epoch;
+
+    // 归档时的投票状态
+    @Enumerated(EnumType.STRING)
+    @Column(name = "final_status")
+    private VoteConfig.Status finalStatus;
+
+    @Column(name = "round1_voters")
+    private Long round1Voters;
+
+    @Column(name = "round2_voters")
+    private Long round2Voters;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,43 @@
+package com.vote.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 压缩选票：每个投票人每轮一行，每位候选人占 2 位
+ */
+@Data
+@Entity
+@Table(name = "packed_ballot", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"election_id", "epoch", "voter_id", "round"})
+})
+public class PackedBallot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "election_id", nullable = false)
+    private Integer electionId;
+
+    // 选举批次，见 VoteConfig.currentEpoch
+    @Column(nullable = false)
+    private Integer epoch;
+
+    @Column(name = "voter_id", nullable = false, length = 100)
+    private String voterId;
+
+    @Column(nullable = false, columnDefinition = "TINYINT")
+    private Byte round;
+
+    @Column(name = "layout_version", nullable = false)
+    private Integer layoutVersion;
+
+    // 2 位一个候选人：0 未投，1 赞成，2 反对，3 弃权；长度随所属选举的排列而定
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] choices;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
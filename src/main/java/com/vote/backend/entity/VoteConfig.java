@@ -8,8 +8,9 @@ import lombok.Data;
 @Table(name = "vote_config")
 public class VoteConfig {
 
+    // 与选举ID相同，每个选举一行配置
     @Id
-    private Integer id = 1;
+    private Integer id = Election.DEFAULT_ID;
 
     // 第一轮限票数（分类别）
     @Column(name = "round1_director_max_approve")
@@ -43,6 +44,14 @@ public class VoteConfig {
     @Column(name = "current_status")
     private Status currentStatus = Status.not_started;
 
+    // 当前选举批次：选票按批次存储，重置投票时切换到新批次，旧批次作为归档保留
+    @Column(name = "current_epoch")
+    private Integer currentEpoch = 1;
+
+    // 候选人版本：候选人或晋级名单变更时由数据库递增（只读映射，保存配置不会覆盖），其他实例据此重建候选人目录
+    @Column(name = "candidates_version", insertable = false, updatable = false)
+    private Long candidatesVersion = 0L;
+
     public enum Status {
         not_started,
         round1_voting,
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "vote_record", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"voter_id", "candidate_id", "round"})
+    @UniqueConstraint(columnNames = {"election_id", "epoch", "voter_id", "candidate_id", "round"})
 })
 public class VoteRecord implements Persistable<String> {
 
@@ -31,6 +31,13 @@ public class VoteRecord implements Persistable<String> {
         this.newRecord = false;
     }
 
+    @Column(name = "election_id", nullable = false)
+    private Integer electionId;
+
+    // 选举批次，见 VoteConfig.currentEpoch
+    @Column(nullable = false)
+    private Integer epoch;
+
     @Column(name = "voter_id", nullable = false, length = 100)
     private String voterId;
 
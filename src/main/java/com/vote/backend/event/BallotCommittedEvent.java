@@ -0,0 +1,17 @@
+package com.vote.backend.event;
+
+import com.vote.backend.entity.VoteRecord;
+
+import java.util.Map;
+
+/**
+ * 选票已落库事件（事务提交后发布）
+ *
+ * @param electionId 选举ID
+ * @param epoch      选票所属批次（重置后提交的旧批次选票不计入新批次）
+ * @param voterId    投票人ID
+ * @param round      轮次
+ * @param votes      key: candidateId, value: 投票类型
+ */
+public record BallotCommittedEvent(int electionId, int epoch, String voterId, int round, Map<String, VoteRecord.VoteType> votes) {
+}
@@ -0,0 +1,9 @@
+package com.vote.backend.event;
+
+/**
+ * 候选人变更事件（事务提交后发布，一次批量操作只发布一次）
+ *
+ * @param electionId 选举ID
+ */
+public record CandidatesChangedEvent(int electionId) {
+}
@@ -0,0 +1,9 @@
+package com.vote.backend.event;
+
+/**
+ * 选举批次切换事件（其他实例重置投票后，由配置缓存的定期刷新发现并发布）
+ *
+ * @param electionId 选举ID
+ */
+public record ElectionEpochChangedEvent(int electionId) {
+}
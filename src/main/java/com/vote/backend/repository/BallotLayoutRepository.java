@@ -0,0 +1,17 @@
+package com.vote.backend.repository;
+
+import com.vote.backend.entity.BallotLayout;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface BallotLayoutRepository extends JpaRepository<BallotLayout, BallotLayout.Key> {
+    
+    // 获取某选举最新版本的候选人排列
+    Optional<BallotLayout> findTopByElectionIdOrderByVersionDesc(Integer electionId);
+    
+    // 获取某选举指定版本的候选人排列
+    Optional<BallotLayout> findByElectionIdAndVersion(Integer electionId, Integer version);
+}
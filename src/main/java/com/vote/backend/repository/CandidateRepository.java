@@ -2,16 +2,54 @@ package com.vote.backend.repository;
 
 import com.vote.backend.entity.Candidate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CandidateRepository extends JpaRepository<Candidate, String> {
     
-    // 查找第二轮晋级的候选人
-    List<Candidate> findByIsRound2QualifiedTrue();
+    // 某选举的所有候选人
+    List<Candidate> findByElectionId(Integer electionId);
+    
+    // 查找某选举中的候选人（不属于该选举时为空）
+    Optional<Candidate> findByIdAndElectionId(String id, Integer electionId);
+    
+    boolean existsByIdAndElectionId(String id, Integer electionId);
+    
+    long countByElectionId(Integer electionId);
+    
+    // 查找某选举第二轮晋级的候选人
+    List<Candidate> findByElectionIdAndIsRound2QualifiedTrue(Integer electionId);
     
     // 按类别查找
-    List<Candidate> findByCategory(Candidate.Category category);
+    List<Candidate> findByElectionIdAndCategory(Integer electionId, Candidate.Category category);
+    
+    // 某选举所有候选人姓名（导入去重用，只查询姓名列）
+    @Query("SELECT c.name FROM Candidate c WHERE c.electionId = ?1")
+    List<String> findAllNames(Integer electionId);
+    
+    // 删除某选举的全部候选人
+    @Modifying
+    @Query("DELETE FROM Candidate c WHERE c.electionId = ?1")
+    int deleteByElectionId(Integer electionId);
+    
+    // 批量删除某选举中的指定候选人（不属于该选举的ID被忽略）
+    @Modifying
+    @Query("DELETE FROM Candidate c WHERE c.electionId = ?1 AND c.id IN ?2")
+    int deleteByElectionIdAndIdIn(Integer electionId, Collection<String> ids);
+    
+    // 一条语句设置某选举的第二轮晋级名单：ids 中的候选人晋级，其余取消（批量更新不经过 @PreUpdate，显式更新修改时间）
+    @Modifying
+    @Query("UPDATE Candidate c SET c.isRound2Qualified = CASE WHEN c.id IN ?2 THEN true ELSE false END, c.updatedAt = CURRENT_TIMESTAMP WHERE c.electionId = ?1")
+    int updateRound2Qualified(Integer electionId, Collection<String> ids);
+    
+    // 取消某选举全部候选人的第二轮晋级资格
+    @Modifying
+    @Query("UPDATE Candidate c SET c.isRound2Qualified = false, c.updatedAt = CURRENT_TIMESTAMP WHERE c.electionId = ?1 AND c.isRound2Qualified = true")
+    int clearRound2Qualified(Integer electionId);
 }
@@ -0,0 +1,14 @@
+package com.vote.backend.repository;
+
+import com.vote.backend.entity.ElectionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ElectionArchiveRepository extends JpaRepository<ElectionArchive, Long> {
+    
+    // 某选举的所有归档（新的在前）
+    List<ElectionArchive> findByElectionIdOrderByEpochDesc(Integer electionId);
+}
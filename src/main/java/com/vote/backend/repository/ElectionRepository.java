@@ -0,0 +1,9 @@
+package com.vote.backend.repository;
+
+import com.vote.backend.entity.Election;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ElectionRepository extends JpaRepository<Election, Integer> {
+}
@@ -0,0 +1,23 @@
+package com.vote.backend.repository;
+
+import com.vote.backend.entity.PackedBallot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PackedBallotRepository extends JpaRepository<PackedBallot, Long> {
+    
+    // 查找某投票人在某选举某批次某轮的选票
+    Optional<PackedBallot> findByElectionIdAndEpochAndVoterIdAndRound(Integer electionId, Integer epoch, String voterId, Byte round);
+    
+    // 查询某选举某批次某轮所有已投票的投票人ID
+    @Query("SELECT p.voterId FROM PackedBallot p WHERE p.electionId = ?1 AND p.epoch = ?2 AND p.round = ?3")
+    List<String> findVoterIdsByRound(Integer electionId, Integer epoch, Byte round);
+    
+    // 统计某选举某批次某轮已投票的人数
+    long countByElectionIdAndEpochAndRound(Integer electionId, Integer epoch, Byte round);
+}
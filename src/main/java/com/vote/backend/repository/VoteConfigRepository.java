@@ -2,16 +2,16 @@ package com.vote.backend.repository;
 
 import com.vote.backend.entity.VoteConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface VoteConfigRepository extends JpaRepository<VoteConfig, Integer> {
-    
-    // 获取第一条配置
-    java.util.Optional<VoteConfig> findTopByOrderByIdAsc();
-    
-    // 获取唯一的配置（id=1）
-    default VoteConfig getConfig() {
-        return findById(1).orElse(new VoteConfig());
-    }
+    // 配置ID与选举ID相同，按选举查询使用 findById
+
+    // 递增选举的候选人版本（在变更候选人的事务中执行）
+    @Modifying
+    @Query(value = "UPDATE vote_config SET candidates_version = candidates_version + 1 WHERE id = ?1", nativeQuery = true)
+    int incrementCandidatesVersion(Integer electionId);
 }
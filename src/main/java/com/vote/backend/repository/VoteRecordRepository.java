@@ -10,29 +10,35 @@ import java.util.List;
 @Repository
 public interface VoteRecordRepository extends JpaRepository<VoteRecord, Long> {
     
+    // 以下查询均限定选举与批次（epoch），归档批次的数据只在按批次查询时可见
+
     // 查找某投票人在某轮的所有投票记录
-    List<VoteRecord> findByVoterIdAndRound(String voterId, Byte round);
+    List<VoteRecord> findByElectionIdAndEpochAndVoterIdAndRound(Integer electionId, Integer epoch, String voterId, Byte round);
     
     // 检查是否已投票
-    boolean existsByVoterIdAndRound(String voterId, Byte round);
+    boolean existsByElectionIdAndEpochAndVoterIdAndRound(Integer electionId, Integer epoch, String voterId, Byte round);
     
     // 统计某候选人在某轮的赞成票数
-    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.candidateId = ?1 AND v.round = ?2 AND v.voteType = 'approve'")
-    Long countApproveVotes(String candidateId, Byte round);
+    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.candidateId = ?3 AND v.round = ?4 AND v.voteType = 'approve'")
+    Long countApproveVotes(Integer electionId, Integer epoch, String candidateId, Byte round);
     
     // 统计某候选人在某轮的反对票数
-    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.candidateId = ?1 AND v.round = ?2 AND v.voteType = 'oppose'")
-    Long countOpposeVotes(String candidateId, Byte round);
+    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.candidateId = ?3 AND v.round = ?4 AND v.voteType = 'oppose'")
+    Long countOpposeVotes(Integer electionId, Integer epoch, String candidateId, Byte round);
     
     // 统计某候选人在某轮的弃权票数
-    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.candidateId = ?1 AND v.round = ?2 AND v.voteType = 'abstain'")
-    Long countAbstainVotes(String candidateId, Byte round);
+    @Query("SELECT COUNT(v) FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.candidateId = ?3 AND v.round = ?4 AND v.voteType = 'abstain'")
+    Long countAbstainVotes(Integer electionId, Integer epoch, String candidateId, Byte round);
     
     // 批量统计某轮所有候选人的投票情况（优化N+1查询）
-    @Query("SELECT v.candidateId, v.voteType, COUNT(v) FROM VoteRecord v WHERE v.round = ?1 GROUP BY v.candidateId, v.voteType")
-    List<Object[]> countAllVotesByRound(Byte round);
+    @Query("SELECT v.candidateId, v.voteType, COUNT(v) FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.round = ?3 GROUP BY v.candidateId, v.voteType")
+    List<Object[]> countAllVotesByRound(Integer electionId, Integer epoch, Byte round);
     
     // 统计某轮已投票的人数
-    @Query("SELECT COUNT(DISTINCT v.voterId) FROM VoteRecord v WHERE v.round = ?1")
-    Long countDistinctVotersByRound(Byte round);
+    @Query("SELECT COUNT(DISTINCT v.voterId) FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.round = ?3")
+    Long countDistinctVotersByRound(Integer electionId, Integer epoch, Byte round);
+    
+    // 查询某轮所有已投票的投票人ID
+    @Query("SELECT DISTINCT v.voterId FROM VoteRecord v WHERE v.electionId = ?1 AND v.epoch = ?2 AND v.round = ?3")
+    List<String> findDistinctVoterIdsByRound(Integer electionId, Integer epoch, Byte round);
 }
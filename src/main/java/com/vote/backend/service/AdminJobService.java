@@ -0,0 +1,243 @@
+package com.vote.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后台管理任务
+ * 导入、重置、结束轮次、导出等耗时操作提交到独立的有界线程池执行，立即返回任务ID，
+ * 管理端轮询任务进度与结果，必要时取消。任务线程数即后台任务可同时占用的数据库连接数上限
+ * （每个线程同一时间最多持有一个连接），因此管理操作不会挤占投票请求的连接。
+ */
+@Slf4j
+@Service
+public class AdminJobService {
+
+    @Value("${vote.jobs.threads:2}")
+    private int threads;
+
+    @Value("${vote.jobs.queue-size:20}")
+    private int queueSize;
+
+    @Value("${vote.jobs.retention:100}")
+    private int retention;
+
+    private ThreadPoolExecutor executor;
+
+    // 按提交顺序保存，超出保留数时淘汰最早的已结束任务
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        queued, running, succeeded, failed, cancelled
+    }
+
+    /**
+     * 任务内容，返回值作为任务结果；返回 {@link JobFile} 时可通过下载接口获取生成的文件
+     */
+    @FunctionalInterface
+    public interface Task {
+        Object run(JobProgress progress) throws Exception;
+    }
+
+    /**
+     * 任务生成的文件，任务被淘汰时删除
+     */
+    public record JobFile(Path path, String filename) {
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "admin-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交任务，线程池与队列均已满时抛出异常
+     */
+    public Job submit(String type, Task task) {
+        Job job = new Job(UUID.randomUUID().toString(), type);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> job.execute(task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("后台任务已满，请稍后重试");
+        }
+        evictFinished();
+        return job;
+    }
+
+    public Optional<Job> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * 最近的任务（新的在前）
+     */
+    public List<Job> list() {
+        List<Job> list;
+        synchronized (jobs) {
+            list = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * 取消任务：排队中的任务不再执行，运行中的任务在下次报告进度时终止
+     */
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.isFinished()) {
+            return false;
+        }
+        job.cancelRequested = true;
+        if (job.status == Status.queued && executor.remove((Runnable) job.future)) {
+            job.finish(Status.cancelled, null, "任务已取消");
+        }
+        return true;
+    }
+
+    private void evictFinished() {
+        synchronized (jobs) {
+            Iterator<Job> it = jobs.values().iterator();
+            while (jobs.size() > retention && it.hasNext()) {
+                Job job = it.next();
+                if (job.isFinished()) {
+                    it.remove();
+                    job.deleteFile();
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个后台任务
+     */
+    public static class Job {
+
+        private final String id;
+        private final String type;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile Status status = Status.queued;
+        private volatile long done;
+        private volatile long total = -1;
+        private volatile Object result;
+        private volatile String message;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile boolean cancelRequested;
+        private volatile Future<?> future;
+
+        Job(String id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isFinished() {
+            return status != Status.queued && status != Status.running;
+        }
+
+        /**
+         * 任务生成的文件（未生成或任务未成功时为空）
+         */
+        public Optional<JobFile> getFile() {
+            return status == Status.succeeded && result instanceof JobFile file ? Optional.of(file) : Optional.empty();
+        }
+
+        /**
+         * 任务状态快照
+         */
+        public Map<String, Object> toView() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("id", id);
+            view.put("type", type);
+            view.put("status", status.name());
+            view.put("done", done);
+            view.put("total", total);
+            view.put("message", message);
+            view.put("result", result instanceof JobFile ? null : result);
+            view.put("downloadUrl", getFile().isPresent() ? "/api/admin/jobs/" + id + "/download" : null);
+            view.put("createdAt", createdAt);
+            view.put("startedAt", startedAt);
+            view.put("finishedAt", finishedAt);
+            return view;
+        }
+
+        private void execute(Task task) {
+            if (cancelRequested) {
+                finish(Status.cancelled, null, "任务已取消");
+                return;
+            }
+            status = Status.running;
+            startedAt = LocalDateTime.now();
+            try {
+                Object value = task.run((d, t) -> {
+                    if (cancelRequested) {
+                        throw new CancellationException();
+                    }
+                    done = d;
+                    total = t;
+                });
+                finish(Status.succeeded, value, null);
+            } catch (CancellationException e) {
+                finish(Status.cancelled, null, "任务已取消");
+            } catch (Exception e) {
+                log.warn("后台任务 {}({}) 失败", type, id, e);
+                finish(Status.failed, null, e.getMessage());
+            }
+        }
+
+        private synchronized void finish(Status finalStatus, Object value, String finalMessage) {
+            if (isFinished()) {
+                return;
+            }
+            result = value;
+            message = finalMessage;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private void deleteFile() {
+            if (result instanceof JobFile file) {
+                try {
+                    Files.deleteIfExists(file.path());
+                } catch (IOException e) {
+                    log.warn("删除任务文件失败: {}", file.path(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+
+import java.util.Map;
+
+/**
+ * 一张已通过校验的选票
+ *
+ * @param electionId 选举ID
+ * @param epoch      选举批次：通过开放状态检查时的配置快照中的批次，写库时按此批次写入，不随之后的重置改变
+ * @param voterId    投票人ID
+ * @param round      轮次
+ * @param votes      key: candidateId, value: 投票类型
+ */
+public record Ballot(int electionId, int epoch, String voterId, int round, Map<String, VoteRecord.VoteType> votes) {
+}
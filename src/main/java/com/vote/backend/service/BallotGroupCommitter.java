@@ -0,0 +1,176 @@
+package com.vote.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 选票组提交
+ * 组提交模式（vote.ingest.mode=group）下，并发提交的选票在一个短时间窗口内（受时间和数量限制）合并，
+ * 一起校验后在同一个事务中用一条批量插入写库，再分别通知各自的提交者。
+ * 批内同一投票人的重复选票只让后到者失败；整批写库失败时逐张重试，只有冲突的选票失败。
+ * 提交者等待超时时，尚未被取走的选票从队列撤回并提示重试；已开始写库的选票结果未知，
+ * 抛出 {@link BallotPendingException} 提示稍后查询，不按失败处理。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BallotGroupCommitter {
+
+    private final BallotStore ballotStore;
+    private final VoterIndexService voterIndexService;
+
+    @Value("${vote.ingest.mode:direct}")
+    private String mode;
+
+    @Value("${vote.ingest.group-window-ms:5}")
+    private long groupWindowMs;
+
+    @Value("${vote.ingest.group-max-size:50}")
+    private int groupMaxSize;
+
+    @Value("${vote.ingest.group-wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private Thread committer;
+
+    // claimed：写库线程取走选票或提交者撤回选票时置位，二者只有一方成功
+    private record Pending(Ballot ballot, CompletableFuture<Void> result, AtomicBoolean claimed) {
+
+        Pending(Ballot ballot) {
+            this(ballot, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        committer = new Thread(this::run, "ballot-group-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (committer != null) {
+            committer.interrupt();
+        }
+    }
+
+    /**
+     * 是否启用组提交模式
+     */
+    public boolean isEnabled() {
+        return "group".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 加入当前批次并等待提交结果
+     */
+    public void submit(Ballot ballot) {
+        Pending pending = new Pending(ballot);
+        queue.add(pending);
+        try {
+            pending.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("投票保存失败，请重试");
+        } catch (TimeoutException e) {
+            abandon(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(pending);
+        }
+    }
+
+    // 放弃等待：选票尚未被取走时撤回，不会再写库；已开始写库时结果未知
+    private void abandon(Pending pending) {
+        if (pending.claim()) {
+            queue.remove(pending);
+            throw new BallotRejectedException(BallotValidator.Rejection.storage_failure, "投票处理超时，请重试");
+        }
+        throw new BallotPendingException("投票正在处理，请稍后查询投票状态");
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(groupMaxSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupWindowMs);
+                while (batch.size() < groupMaxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("组提交异常", e);
+                batch.forEach(p -> p.result().completeExceptionally(new RuntimeException("投票保存失败，请重试")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        // 批内校验：同一轮同一投票人只保留第一张；提交者已撤回的选票跳过
+        List<Pending> accepted = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (Pending p : batch) {
+            if (!p.claim()) {
+                continue;
+            }
+            Ballot b = p.ballot();
+            if (!seen.add(b.electionId() + ":" + b.round() + ":" + b.voterId())
+                    || voterIndexService.hasVoted(b.electionId(), b.voterId(), b.round())) {
+                p.result().completeExceptionally(new BallotRejectedException(BallotValidator.Rejection.already_voted, "您已经在本轮投过票了"));
+            } else {
+                accepted.add(p);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            ballotStore.saveGroup(accepted.stream().map(Pending::ballot).toList());
+            accepted.forEach(p -> p.result().complete(null));
+        } catch (Exception e) {
+            // 整批失败（通常为唯一约束冲突），逐张提交以隔离出错的选票
+            log.warn("组提交失败，改为逐张提交: {}", e.getMessage());
+            for (Pending p : accepted) {
+                try {
+                    ballotStore.save(p.ballot());
+                    p.result().complete(null);
+                } catch (DataIntegrityViolationException duplicate) {
+                    p.result().completeExceptionally(new BallotRejectedException(BallotValidator.Rejection.already_voted, "您已经在本轮投过票了"));
+                } catch (Exception single) {
+                    p.result().completeExceptionally(new RuntimeException("投票保存失败，请重试"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 选票预写日志
+ * 日志模式（vote.ingest.mode=journal）下，选票校验通过后追加写入本地日志文件并 fsync 即确认成功，
+ * 后台定时将日志中的选票批量写入 vote_record。启动时会先把上次未落库的选票重放入库。
+ *
+ * 文件格式：每条记录为 [int 长度][int CRC32][内容]，已落库位置记录在 checkpoint 文件中。
+ * 内容依次为选举ID、批次、投票人ID、轮次与各候选人的投票类型；批次是选票通过校验时的批次，落库时按此写入。
+ * 落库只读取到已确认位置（committedEnd，追加写入并 fsync 后才前移），不会读到正在写入的记录；
+ * 不完整的末尾记录只可能来自宕机，仅在启动重放时截断。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BallotJournal {
+
+    private static final int HEADER_BYTES = 8;
+    private static final VoteRecord.VoteType[] VOTE_TYPES = VoteRecord.VoteType.values();
+
+    private final BallotStore ballotStore;
+
+    @Value("${vote.ingest.mode:direct}")
+    private String mode;
+
+    @Value("${vote.ingest.journal-dir:./data/journal}")
+    private String journalDir;
+
+    @Value("${vote.ingest.drain-batch-size:200}")
+    private int drainBatchSize;
+
+    private FileChannel journal;
+    private FileChannel checkpoint;
+
+    // 追加锁：保护写入与截断
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // 落库锁：同一时间只有一个线程写库
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private volatile long drainedOffset;
+
+    // 已 fsync 确认的日志末尾，之后的字节属于正在写入或写入失败的记录
+    private volatile long committedEnd;
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path dir = Paths.get(journalDir);
+        Path journalFile = dir.resolve("ballots.journal");
+        Path checkpointFile = dir.resolve("ballots.checkpoint");
+        if (!isEnabled() && !Files.exists(journalFile)) {
+            return;
+        }
+        Files.createDirectories(dir);
+        journal = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        checkpoint = FileChannel.open(checkpointFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        drainedOffset = readCheckpoint();
+        committedEnd = journal.size();
+
+        // 重放上次未落库的选票，截掉宕机时未写完的末尾记录
+        long pending = committedEnd - drainedOffset;
+        if (pending > 0) {
+            log.info("重放选票日志，未落库 {} 字节", pending);
+            flush(true);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+        checkpoint.close();
+    }
+
+    /**
+     * 是否启用日志模式
+     */
+    public boolean isEnabled() {
+        return "journal".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 追加一张选票并 fsync，返回即代表选票已持久化
+     */
+    public void append(Ballot ballot) throws IOException {
+        byte[] payload = encode(ballot);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        appendLock.lock();
+        try {
+            long position = committedEnd;
+            try {
+                while (buffer.hasRemaining()) {
+                    position += journal.write(buffer, position);
+                }
+                journal.force(false);
+            } catch (IOException e) {
+                // 未确认的记录不能留在日志中，否则重启后会被当作已确认的选票重放
+                journal.truncate(committedEnd);
+                throw e;
+            }
+            committedEnd = position;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * 定时将日志中的选票写入数据库
+     */
+    @Scheduled(fixedDelayString = "${vote.ingest.drain-interval-ms:200}")
+    public void drain() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("选票日志落库失败，稍后重试", e);
+        }
+    }
+
+    /**
+     * 立即将日志中所有选票写入数据库（结束轮次、统计前调用）
+     */
+    public void flush() throws IOException {
+        flush(false);
+    }
+
+    // recovering：启动重放时为 true，末尾不完整的记录是宕机留下的，截断；运行中出现则说明日志损坏，报错等待处理
+    private void flush(boolean recovering) throws IOException {
+        if (journal == null) {
+            return;
+        }
+        drainLock.lock();
+        try {
+            long end = committedEnd;
+            long offset = drainedOffset;
+            List<Ballot> batch = new ArrayList<>();
+            while (offset < end) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                if (!readFully(header, offset) || header.getInt(0) <= 0 || offset + HEADER_BYTES + header.getInt(0) > end) {
+                    tornRecord(offset, recovering);
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+                readFully(payload, offset + HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != header.getInt(4)) {
+                    tornRecord(offset, recovering);
+                    break;
+                }
+                batch.add(decode(payload.array()));
+                offset += HEADER_BYTES + payload.capacity();
+                if (batch.size() >= drainBatchSize) {
+                    ballotStore.insertJournaled(batch);
+                    writeCheckpoint(offset);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                ballotStore.insertJournaled(batch);
+                writeCheckpoint(offset);
+            }
+            compact();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // 日志已全部落库时截断文件，避免无限增长
+    private void compact() throws IOException {
+        appendLock.lock();
+        try {
+            if (drainedOffset > 0 && drainedOffset == committedEnd) {
+                journal.truncate(0);
+                journal.force(true);
+                committedEnd = 0;
+                writeCheckpoint(0);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // 启动重放时末尾记录不完整（写入过程中宕机，未确认给投票人），直接截掉
+    private void tornRecord(long offset, boolean recovering) throws IOException {
+        if (!recovering) {
+            throw new IOException("选票日志在偏移 " + offset + " 处记录损坏");
+        }
+        appendLock.lock();
+        try {
+            log.warn("选票日志在偏移 {} 处记录不完整，已截断", offset);
+            journal.truncate(offset);
+            journal.force(true);
+            committedEnd = offset;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private boolean readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = journal.read(buffer, position + buffer.position());
+            if (n < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (checkpoint.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return Math.min(buffer.getLong(0), journal.size());
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, offset);
+        checkpoint.write(buffer, 0);
+        checkpoint.force(false);
+        drainedOffset = offset;
+    }
+
+    private static byte[] encode(Ballot entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + entry.votes().size() * 48);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(entry.electionId());
+        out.writeInt(entry.epoch());
+        out.writeUTF(entry.voterId());
+        out.writeByte(entry.round());
+        out.writeInt(entry.votes().size());
+        for (Map.Entry<String, VoteRecord.VoteType> vote : entry.votes().entrySet()) {
+            out.writeUTF(vote.getKey());
+            out.writeByte(vote.getValue().ordinal());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Ballot decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int electionId = in.readInt();
+        int epoch = in.readInt();
+        String voterId = in.readUTF();
+        int round = in.readByte();
+        int size = in.readInt();
+        Map<String, VoteRecord.VoteType> votes = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            votes.put(in.readUTF(), VOTE_TYPES[in.readByte()]);
+        }
+        return new Ballot(electionId, epoch, voterId, round, votes);
+    }
+}
@@ -0,0 +1,168 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.BallotLayout;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.repository.BallotLayoutRepository;
+import com.vote.backend.repository.CandidateRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 压缩选票的候选人排列管理
+ * 排列按选举分别编号，只包含该选举的候选人：出现新候选人时生成新版本，保留上一版本中仍存在的候选人（相对顺序不变）、
+ * 去掉已删除的候选人，再在末尾追加新候选人。选票记录写入时的版本，旧版本写入的选票仍可按其版本解码，
+ * 排列长度因此只取决于选举当前的候选人数，不随反复导入或删除增长。
+ * 新版本在独立事务中只插入不覆盖，提交成功后才在内存中生效：调用方的选票事务回滚不会留下数据库中不存在的版本，
+ * 多实例同时生成同一版本号时后插入的一方读取对方的版本后重试。
+ */
+@Service
+public class BallotLayoutService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ballot_layout (election_id, version, candidate_ids, created_at) VALUES (?, ?, ?, ?)";
+
+    // packed_ballot.choices 为 BLOB（最多 65535 字节），每字节容纳 4 位候选人
+    static final int MAX_CANDIDATES = 65535 * 4;
+
+    private final BallotLayoutRepository ballotLayoutRepository;
+    private final CandidateRepository candidateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+
+    // (选举ID, 版本) -> 排列
+    private final Map<Key, Layout> versions = new ConcurrentHashMap<>();
+    // 选举ID -> 最新排列
+    private final Map<Integer, Layout> current = new ConcurrentHashMap<>();
+
+    private record Key(int electionId, int version) {
+    }
+
+    public BallotLayoutService(BallotLayoutRepository ballotLayoutRepository, CandidateRepository candidateRepository,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.ballotLayoutRepository = ballotLayoutRepository;
+        this.candidateRepository = candidateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 某一版本的候选人排列
+     */
+    public record Layout(int version, List<String> candidateIds, Map<String, Integer> positions) {
+
+        static Layout of(int version, List<String> candidateIds) {
+            Map<String, Integer> positions = new HashMap<>(candidateIds.size() * 2);
+            for (int i = 0; i < candidateIds.size(); i++) {
+                positions.put(candidateIds.get(i), i);
+            }
+            return new Layout(version, List.copyOf(candidateIds), positions);
+        }
+
+        boolean containsAll(Collection<String> ids) {
+            return positions.keySet().containsAll(ids);
+        }
+    }
+
+    /**
+     * 获取选举中能容纳给定候选人的最新排列，必要时按该选举当前的候选人生成新版本
+     */
+    public Layout resolve(int electionId, Collection<String> candidateIds) {
+        Layout layout = current(electionId);
+        if (layout.containsAll(candidateIds)) {
+            return layout;
+        }
+        synchronized (this) {
+            while (true) {
+                Layout latest = current(electionId);
+                if (latest.containsAll(candidateIds)) {
+                    return latest;
+                }
+                Layout next;
+                try {
+                    next = newTransaction.execute(status -> {
+                        Set<String> present = new HashSet<>();
+                        for (Candidate candidate : candidateRepository.findByElectionId(electionId)) {
+                            present.add(candidate.getId());
+                        }
+                        List<String> ids = new ArrayList<>(present.size());
+                        for (String id : latest.candidateIds()) {
+                            if (present.contains(id)) {
+                                ids.add(id);
+                            }
+                        }
+                        present.stream()
+                                .filter(id -> !latest.positions().containsKey(id))
+                                .sorted()
+                                .forEach(ids::add);
+                        Layout created = Layout.of(latest.version() + 1, ids);
+                        if (!created.containsAll(candidateIds)) {
+                            throw new RuntimeException("选票中包含不存在的候选人");
+                        }
+                        if (ids.size() > MAX_CANDIDATES) {
+                            throw new IllegalStateException("候选人数超过压缩选票的容量: " + ids.size());
+                        }
+                        jdbcTemplate.update(INSERT_SQL, electionId, created.version(), String.join(",", ids),
+                                Timestamp.valueOf(LocalDateTime.now()));
+                        return created;
+                    });
+                } catch (DuplicateKeyException e) {
+                    // 其他实例已写入该版本：读取最新版本后重试
+                    publish(electionId, newTransaction.execute(status -> loadLatest(electionId)));
+                    continue;
+                }
+                publish(electionId, next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * 按版本获取选举的排列（解码用）
+     */
+    public Layout get(int electionId, int version) {
+        return versions.computeIfAbsent(new Key(electionId, version), key -> ballotLayoutRepository
+                .findByElectionIdAndVersion(electionId, version)
+                .map(this::toLayout)
+                .orElseThrow(() -> new IllegalStateException("候选人排列版本不存在: " + electionId + "/" + version)));
+    }
+
+    private Layout current(int electionId) {
+        Layout layout = current.get(electionId);
+        if (layout == null) {
+            synchronized (this) {
+                layout = current.get(electionId);
+                if (layout == null) {
+                    layout = loadLatest(electionId);
+                    publish(electionId, layout);
+                }
+            }
+        }
+        return layout;
+    }
+
+    private void publish(int electionId, Layout layout) {
+        versions.put(new Key(electionId, layout.version()), layout);
+        current.put(electionId, layout);
+    }
+
+    private Layout loadLatest(int electionId) {
+        return ballotLayoutRepository.findTopByElectionIdOrderByVersionDesc(electionId)
+                .map(this::toLayout)
+                .orElse(Layout.of(0, List.of()));
+    }
+
+    private Layout toLayout(BallotLayout entity) {
+        String ids = entity.getCandidateIds();
+        return Layout.of(entity.getVersion(), ids.isEmpty() ? List.of() : Arrays.asList(ids.split(",")));
+    }
+}
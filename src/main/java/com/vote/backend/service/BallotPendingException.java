@@ -0,0 +1,11 @@
+package com.vote.backend.service;
+
+/**
+ * 选票已开始写库但在等待时间内未得到结果，最终可能已计入也可能失败（不应按失败统计，也不应提示重新投票）
+ */
+public class BallotPendingException extends RuntimeException {
+
+    public BallotPendingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.vote.backend.service;
+
+import lombok.Getter;
+
+/**
+ * 选票被拒绝（带结构化原因）
+ */
+@Getter
+public class BallotRejectedException extends RuntimeException {
+
+    private final BallotValidator.Rejection rejection;
+
+    public BallotRejectedException(BallotValidator.Rejection rejection, String message) {
+        super(message);
+        this.rejection = rejection;
+    }
+}
@@ -0,0 +1,64 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 将按投票人排序的 vote_record 行聚合为选票（同一投票人的记录必须相邻），读完后调用 {@link #finish}
+ */
+final class BallotRowGrouper implements RowCallbackHandler {
+
+    /**
+     * 按投票人排序读取某选举某批次某轮记录的查询，参数为选举、批次、轮次
+     */
+    static final String SELECT_BY_ROUND =
+            "SELECT voter_id, candidate_id, vote_type FROM vote_record WHERE election_id = ? AND epoch = ? AND round = ? ORDER BY voter_id";
+
+    private final int electionId;
+    private final int epoch;
+    private final int round;
+    private final Consumer<Ballot> consumer;
+    private String voterId;
+    private Map<String, VoteRecord.VoteType> votes = new LinkedHashMap<>();
+    private int count;
+
+    BallotRowGrouper(int electionId, int epoch, int round, Consumer<Ballot> consumer) {
+        this.electionId = electionId;
+        this.epoch = epoch;
+        this.round = round;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        String id = rs.getString("voter_id");
+        if (voterId != null && !voterId.equals(id)) {
+            emit();
+        }
+        voterId = id;
+        votes.put(rs.getString("candidate_id"), VoteRecord.VoteType.valueOf(rs.getString("vote_type")));
+    }
+
+    /**
+     * 输出最后一张选票，返回选票总数
+     */
+    int finish() {
+        if (voterId != null) {
+            emit();
+            voterId = null;
+        }
+        return count;
+    }
+
+    private void emit() {
+        consumer.accept(new Ballot(electionId, epoch, voterId, round, votes));
+        votes = new LinkedHashMap<>();
+        count++;
+    }
+}
@@ -0,0 +1,260 @@
+package com.vote.backend.service;
+
+import com.vote.backend.config.ReadReplicaConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.repository.VoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 选票持久化
+ * 选票写入其通过校验时的批次（Ballot.epoch），重置前通过校验、重置后才落库的选票仍归入旧批次；
+ * 读取默认限定当前批次（VoteConfig.currentEpoch），归档批次按批次号读取。
+ * 共享计数模式下选票的计数与选票在同一事务中写入 candidate_tally；计数行的插入可能与并发事务死锁
+ * （MySQL 回滚整个事务），选票写入因此在事务模板中执行，死锁或锁等待超时时整个事务短暂退避后重试。
+ */
+@Service
+@RequiredArgsConstructor
+public class BallotStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO vote_record (id, election_id, epoch, voter_id, candidate_id, round, vote_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IGNORE_SQL =
+            "INSERT IGNORE INTO vote_record (id, election_id, epoch, voter_id, candidate_id, round, vote_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    // 选票写入事务因死锁失败时的最多尝试次数
+    private static final int LOCK_FAILURE_ATTEMPTS = 3;
+
+    private final VoteRecordRepository voteRecordRepository;
+    private final PackedBallotStore packedBallotStore;
+    private final CandidateTallyStore candidateTallyStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VoteConfigCache voteConfigCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${vote.storage.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * 同步保存一张选票，事务提交后发布选票落库事件
+     */
+    public void save(Ballot ballot) {
+        inTransaction(() -> {
+            if (packedBallotStore.isEnabled()) {
+                packedBallotStore.insert(List.of(ballot), false);
+            } else {
+                saveRecords(ballot);
+            }
+            addTally(List.of(ballot));
+
+            // 事务提交后更新内存计票与已投票索引
+            publishCommitted(ballot);
+        });
+    }
+
+    private void saveRecords(Ballot ballot) {
+        List<VoteRecord> records = new ArrayList<>();
+        for (Map.Entry<String, VoteRecord.VoteType> entry : ballot.votes().entrySet()) {
+            VoteRecord record = new VoteRecord();
+            record.setElectionId(ballot.electionId());
+            record.setEpoch(ballot.epoch());
+            record.setVoterId(ballot.voterId());
+            record.setCandidateId(entry.getKey());
+            record.setRound((byte) ballot.round());
+            record.setVoteType(entry.getValue());
+            records.add(record);
+        }
+        voteRecordRepository.saveAll(records);
+    }
+
+    /**
+     * 在一个事务中用一条批量插入保存多张选票（组提交），任一记录冲突则整批回滚
+     */
+    public void saveGroup(List<Ballot> ballots) {
+        inTransaction(() -> {
+            if (packedBallotStore.isEnabled()) {
+                packedBallotStore.insert(ballots, false);
+            } else {
+                jdbcTemplate.batchUpdate(INSERT_SQL, toRows(ballots));
+            }
+            addTally(ballots);
+            ballots.forEach(this::publishCommitted);
+        });
+    }
+
+    /**
+     * 批量写入日志中的选票（重放安全：已存在的记录被忽略）
+     */
+    public void insertJournaled(List<Ballot> ballots) {
+        inTransaction(() -> {
+            List<Ballot> batch = ballots;
+            if (candidateTallyStore.isEnabled()) {
+                // 上一批可能已提交而检查点未写入，重放时已落库的选票不再累加计数
+                batch = withoutStored(batch);
+                candidateTallyStore.add(batch);
+            }
+            if (packedBallotStore.isEnabled()) {
+                packedBallotStore.insert(batch, true);
+            } else {
+                jdbcTemplate.batchUpdate(INSERT_IGNORE_SQL, toRows(batch));
+            }
+        });
+    }
+
+    /**
+     * 逐张读取选举当前批次某轮所有选票（流式，内存占用与选票数量无关；读写分离时走只读副本）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public void forEachBallot(int electionId, int round, Consumer<Ballot> consumer) {
+        forEachBallot(electionId, voteConfigCache.get(electionId).getCurrentEpoch(), round, consumer);
+    }
+
+    /**
+     * 逐张读取选举指定批次某轮所有选票（读写分离时走只读副本）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public void forEachBallot(int electionId, int epoch, int round, Consumer<Ballot> consumer) {
+        if (packedBallotStore.isEnabled()) {
+            packedBallotStore.forEachBallot(electionId, epoch, round, consumer);
+            return;
+        }
+        BallotRowGrouper grouper = new BallotRowGrouper(electionId, epoch, round, consumer);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BallotRowGrouper.SELECT_BY_ROUND,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setInt(1, electionId);
+            ps.setInt(2, epoch);
+            ps.setByte(3, (byte) round);
+            return ps;
+        }, grouper);
+        grouper.finish();
+    }
+
+    /**
+     * 查询某投票人在选举指定批次某轮的选票（审计用，读写分离时走只读副本）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public Optional<Ballot> findBallot(int electionId, int epoch, String voterId, int round) {
+        if (packedBallotStore.isEnabled()) {
+            return packedBallotStore.findBallot(electionId, epoch, voterId, round);
+        }
+        List<VoteRecord> records = voteRecordRepository.findByElectionIdAndEpochAndVoterIdAndRound(
+                electionId, epoch, voterId, (byte) round);
+        return records.isEmpty() ? Optional.empty() : Optional.of(new Ballot(electionId, epoch, voterId, round,
+                records.stream().collect(Collectors.toMap(VoteRecord::getCandidateId, VoteRecord::getVoteType))));
+    }
+
+    /**
+     * 按选票重建选举当前批次的共享计数（开启共享计数前已有选票时执行，执行期间不应有选票写入）
+     *
+     * @return 每轮计入的选票数
+     */
+    @Transactional
+    public Map<Integer, Integer> rebuildTally(int electionId) {
+        candidateTallyStore.clear(electionId, voteConfigCache.get(electionId).getCurrentEpoch());
+        Map<Integer, Integer> counted = new LinkedHashMap<>();
+        for (int round = 1; round <= 2; round++) {
+            List<Ballot> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            int[] count = {0};
+            forEachBallot(electionId, round, ballot -> {
+                batch.add(ballot);
+                count[0]++;
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    candidateTallyStore.add(batch);
+                    batch.clear();
+                }
+            });
+            candidateTallyStore.add(batch);
+            counted.put(round, count[0]);
+        }
+        return counted;
+    }
+
+    // 在事务中执行选票写入，因死锁或锁等待超时回滚时随机退避后重试
+    private void inTransaction(Runnable work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> work.run());
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= LOCK_FAILURE_ATTEMPTS) {
+                    throw e;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextInt(1, 10 * attempt + 1)));
+            }
+        }
+    }
+
+    // 共享计数模式下在写入选票的事务中累加计数
+    private void addTally(List<Ballot> ballots) {
+        if (candidateTallyStore.isEnabled()) {
+            candidateTallyStore.add(ballots);
+        }
+    }
+
+    // 过滤掉投票人在选票所属批次该轮已有选票的选票
+    private List<Ballot> withoutStored(List<Ballot> ballots) {
+        String table = packedBallotStore.isEnabled() ? "packed_ballot" : "vote_record";
+        Map<List<Integer>, List<Ballot>> groups = ballots.stream().collect(Collectors.groupingBy(
+                b -> List.of(b.electionId(), b.epoch(), b.round()), LinkedHashMap::new, Collectors.toList()));
+        List<Ballot> fresh = new ArrayList<>(ballots.size());
+        groups.forEach((key, group) -> {
+            List<Object> args = new ArrayList<>(group.size() + 3);
+            args.addAll(key);
+            group.forEach(b -> args.add(b.voterId()));
+            Set<String> stored = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT voter_id FROM " + table + " WHERE election_id = ? AND epoch = ? AND round = ? AND voter_id IN ("
+                            + String.join(", ", Collections.nCopies(group.size(), "?")) + ")",
+                    String.class, args.toArray()));
+            group.stream().filter(b -> !stored.contains(b.voterId())).forEach(fresh::add);
+        });
+        return fresh;
+    }
+
+    private void publishCommitted(Ballot ballot) {
+        eventPublisher.publishEvent(new BallotCommittedEvent(ballot.electionId(), ballot.epoch(), ballot.voterId(), ballot.round(), ballot.votes()));
+    }
+
+    private List<Object[]> toRows(List<Ballot> ballots) {
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Ballot ballot : ballots) {
+            for (Map.Entry<String, VoteRecord.VoteType> vote : ballot.votes().entrySet()) {
+                rows.add(new Object[]{
+                        UUID.randomUUID().toString(),
+                        ballot.electionId(),
+                        ballot.epoch(),
+                        ballot.voterId(),
+                        vote.getKey(),
+                        ballot.round(),
+                        vote.getValue().name(),
+                        now
+                });
+            }
+        }
+        return rows;
+    }
+}
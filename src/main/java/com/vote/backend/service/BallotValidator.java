@@ -0,0 +1,127 @@
+package com.vote.backend.service;
+
+import com.vote.backend.dto.VoteSubmitDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.VoteRecord;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 选票校验
+ * 将提交的选票一次性解析为候选人下标与投票类型的基本类型数组，再依次检查
+ * 未知候选人、第二轮资格、非法投票类型与各类别赞成票上限。校验失败返回结构化原因，不抛异常。
+ */
+@Service
+public class BallotValidator {
+
+    private static final VoteRecord.VoteType[] VOTE_TYPES = VoteRecord.VoteType.values();
+    private static final int APPROVE = VoteRecord.VoteType.approve.ordinal();
+
+    /**
+     * 拒绝原因
+     */
+    public enum Rejection {
+        invalid_round,
+        round_closed,
+        already_voted,
+        unknown_candidate,
+        not_qualified,
+        invalid_vote_type,
+        director_limit_exceeded,
+        manager_limit_exceeded,
+        storage_failure
+    }
+
+    /**
+     * 校验结果：通过时 ballot 非空，否则 rejection 与 message 说明原因
+     */
+    public record Result(Ballot ballot, Rejection rejection, String message) {
+
+        static Result accept(Ballot ballot) {
+            return new Result(ballot, null, null);
+        }
+
+        static Result reject(Rejection rejection, String message) {
+            return new Result(null, rejection, message);
+        }
+
+        public boolean isAccepted() {
+            return ballot != null;
+        }
+    }
+
+    /**
+     * 校验选票内容（投票开放状态与重复投票由调用方检查）
+     */
+    public Result validate(VoteSubmitDTO dto, VoteConfigSnapshot config, CandidateCatalog.Snapshot catalog) {
+        int round = dto.getRound();
+        if (round != 1 && round != 2) {
+            return Result.reject(Rejection.invalid_round, "轮次无效");
+        }
+
+        Map<String, String> raw = dto.getVotes();
+        int size = raw.size();
+        int[] candidateIndexes = new int[size];
+        byte[] voteTypes = new byte[size];
+        int directorApproveCount = 0;
+        int managerApproveCount = 0;
+
+        int n = 0;
+        for (Map.Entry<String, String> entry : raw.entrySet()) {
+            int index = entry.getKey() == null ? -1 : catalog.indexOf(entry.getKey());
+            if (index < 0) {
+                return Result.reject(Rejection.unknown_candidate, "候选人不存在: " + entry.getKey());
+            }
+            if (round == 2 && !catalog.isRound2QualifiedAt(index)) {
+                return Result.reject(Rejection.not_qualified,
+                        "候选人未进入第二轮: " + catalog.candidateAt(index).getName());
+            }
+            int voteType = parseVoteType(entry.getValue());
+            if (voteType < 0) {
+                return Result.reject(Rejection.invalid_vote_type, "投票类型无效: " + entry.getValue());
+            }
+            if (voteType == APPROVE) {
+                if (catalog.categoryAt(index) == Candidate.Category.director) {
+                    directorApproveCount++;
+                } else if (catalog.categoryAt(index) == Candidate.Category.manager) {
+                    managerApproveCount++;
+                }
+            }
+            candidateIndexes[n] = index;
+            voteTypes[n] = (byte) voteType;
+            n++;
+        }
+
+        // 检查各类别赞成票数量限制
+        int directorMaxApprove = round == 1 ? config.getRound1DirectorMaxApprove() : config.getRound2DirectorMaxApprove();
+        int managerMaxApprove = round == 1 ? config.getRound1ManagerMaxApprove() : config.getRound2ManagerMaxApprove();
+        if (directorApproveCount > directorMaxApprove) {
+            return Result.reject(Rejection.director_limit_exceeded,
+                    "常务理事赞成票数量超过限制（最多" + directorMaxApprove + "票，当前" + directorApproveCount + "票）");
+        }
+        if (managerApproveCount > managerMaxApprove) {
+            return Result.reject(Rejection.manager_limit_exceeded,
+                    "负责人赞成票数量超过限制（最多" + managerMaxApprove + "票，当前" + managerApproveCount + "票）");
+        }
+
+        Map<String, VoteRecord.VoteType> votes = new HashMap<>(size * 2);
+        for (int i = 0; i < n; i++) {
+            votes.put(catalog.idAt(candidateIndexes[i]), VOTE_TYPES[voteTypes[i]]);
+        }
+        return Result.accept(new Ballot(config.getElectionId(), config.getCurrentEpoch(), dto.getVoterId(), round, votes));
+    }
+
+    private static int parseVoteType(String value) {
+        if (value == null) {
+            return -1;
+        }
+        return switch (value) {
+            case "approve" -> VoteRecord.VoteType.approve.ordinal();
+            case "oppose" -> VoteRecord.VoteType.oppose.ordinal();
+            case "abstain" -> VoteRecord.VoteType.abstain.ordinal();
+            default -> -1;
+        };
+    }
+}
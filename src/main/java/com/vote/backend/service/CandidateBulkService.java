@@ -0,0 +1,107 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.event.CandidatesChangedEvent;
+import com.vote.backend.repository.CandidateRepository;
+import com.vote.backend.repository.VoteConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * 候选人变更
+ * 批量删除与晋级名单变更各用一条 UPDATE/DELETE 语句完成，不再逐行读取和保存；
+ * 每个操作在事务提交后只发布一次 {@link CandidatesChangedEvent}，候选人目录据此重建一次；
+ * 同时在同一事务中递增选举的候选人版本，其他实例刷新配置时据此重建各自的目录。
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateBulkService {
+
+    private final CandidateRepository candidateRepository;
+    private final VoteConfigRepository voteConfigRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 保存（新增或修改）一位候选人
+     */
+    @Transactional
+    public Candidate save(Candidate candidate) {
+        Candidate saved = candidateRepository.save(candidate);
+        changed(candidate.getElectionId());
+        return saved;
+    }
+
+    /**
+     * 删除选举中的一位候选人，不属于该选举时返回 false
+     */
+    @Transactional
+    public boolean delete(int electionId, String id) {
+        Optional<Candidate> candidate = candidateRepository.findByIdAndElectionId(id, electionId);
+        candidate.ifPresent(c -> {
+            candidateRepository.delete(c);
+            changed(electionId);
+        });
+        return candidate.isPresent();
+    }
+
+    /**
+     * 批量删除选举中的候选人（不属于该选举的ID被忽略）
+     *
+     * @return 实际删除数
+     */
+    @Transactional
+    public int deleteAll(int electionId, Collection<String> ids) {
+        int deleted = candidateRepository.deleteByElectionIdAndIdIn(electionId, ids);
+        if (deleted > 0) {
+            changed(electionId);
+        }
+        return deleted;
+    }
+
+    /**
+     * 清空选举的全部候选人
+     *
+     * @return 删除数
+     */
+    @Transactional
+    public int clear(int electionId) {
+        int deleted = candidateRepository.deleteByElectionId(electionId);
+        changed(electionId);
+        return deleted;
+    }
+
+    /**
+     * 设置选举的第二轮晋级名单：ids 中的候选人晋级，其余取消（不属于该选举的ID被忽略）
+     */
+    @Transactional
+    public void setRound2Qualified(int electionId, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            candidateRepository.clearRound2Qualified(electionId);
+        } else {
+            candidateRepository.updateRound2Qualified(electionId, ids);
+        }
+        changed(electionId);
+    }
+
+    /**
+     * 取消选举全部候选人的第二轮晋级资格
+     */
+    @Transactional
+    public void clearRound2Qualified(int electionId) {
+        candidateRepository.clearRound2Qualified(electionId);
+        changed(electionId);
+    }
+
+    /**
+     * 候选人在本服务之外变更（如批量导入）后在同一事务中调用，递增候选人版本，事务提交后重建目录
+     */
+    public void changed(int electionId) {
+        voteConfigRepository.incrementCandidatesVersion(electionId);
+        eventPublisher.publishEvent(new CandidatesChangedEvent(electionId));
+    }
+}
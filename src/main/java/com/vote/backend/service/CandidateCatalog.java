@@ -0,0 +1,162 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.event.CandidatesChangedEvent;
+import com.vote.backend.repository.CandidateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 候选人目录
+ * 按选举持有候选人的不可变快照：每位候选人一个稠密下标、类别数组、第二轮晋级子集以及现成的列表。
+ * 选举首次访问时加载，候选人或晋级名单变更（{@link CandidatesChangedEvent}，包括配置刷新发现的其他实例的变更）后重建，
+ * 投票端的读取与选票校验都直接使用快照。
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateCatalog implements ElectionScopedState {
+
+    private final CandidateRepository candidateRepository;
+    private final VoteConfigCache voteConfigCache;
+
+    // electionId -> 目录快照
+    private final Map<Integer, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    // 版本号全局递增，选举被淘汰后重新加载也不会与旧版本重复
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * 某选举当前的目录快照
+     */
+    public Snapshot get(int electionId) {
+        return snapshots.computeIfAbsent(electionId, this::load);
+    }
+
+    /**
+     * 从数据库重建某选举的目录
+     */
+    public void rebuild(int electionId) {
+        snapshots.compute(electionId, (id, old) -> load(id));
+    }
+
+    /**
+     * 候选人变更事务提交后重建目录（未加载的选举在下次访问时加载）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandidatesChanged(CandidatesChangedEvent event) {
+        if (snapshots.containsKey(event.electionId())) {
+            rebuild(event.electionId());
+        }
+    }
+
+    private Snapshot load(int electionId) {
+        // 先加载配置快照再读取候选人：配置刷新据快照中的候选人版本发现其他实例的变更，目录不会早于该版本
+        voteConfigCache.get(electionId);
+        return new Snapshot(versions.incrementAndGet(), candidateRepository.findByElectionId(electionId));
+    }
+
+    @Override
+    public Set<Integer> loadedElections() {
+        return snapshots.keySet();
+    }
+
+    @Override
+    public long estimateBytes(int electionId) {
+        Snapshot snapshot = snapshots.get(electionId);
+        return snapshot == null ? 0 : snapshot.estimatedBytes;
+    }
+
+    @Override
+    public void evict(int electionId) {
+        snapshots.remove(electionId);
+    }
+
+    /**
+     * 候选人目录快照
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final String[] ids;
+        private final Candidate.Category[] categories;
+        private final boolean[] round2Qualified;
+        private final Map<String, Integer> indexById;
+        private final List<Candidate> round1Candidates;
+        private final List<Candidate> round2Candidates;
+        private final long estimatedBytes;
+
+        Snapshot(long version, List<Candidate> candidates) {
+            int size = candidates.size();
+            this.version = version;
+            this.ids = new String[size];
+            this.categories = new Candidate.Category[size];
+            this.round2Qualified = new boolean[size];
+            this.indexById = new HashMap<>(size * 2);
+            List<Candidate> qualified = new ArrayList<>();
+            long bytes = 0;
+            for (int i = 0; i < size; i++) {
+                Candidate c = candidates.get(i);
+                // 对象与索引约 200 字节，另加文本字段
+                bytes += 200 + 2L * (length(c.getName()) + length(c.getTitle()) + length(c.getDescription()) + length(c.getPdfUrl()));
+                ids[i] = c.getId();
+                categories[i] = c.getCategory();
+                round2Qualified[i] = Boolean.TRUE.equals(c.getIsRound2Qualified());
+                indexById.put(c.getId(), i);
+                if (round2Qualified[i]) {
+                    qualified.add(c);
+                }
+            }
+            this.round1Candidates = Collections.unmodifiableList(new ArrayList<>(candidates));
+            this.round2Candidates = Collections.unmodifiableList(qualified);
+            this.estimatedBytes = bytes;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * 候选人下标，不存在时返回 -1
+         */
+        public int indexOf(String candidateId) {
+            Integer index = indexById.get(candidateId);
+            return index == null ? -1 : index;
+        }
+
+        public String idAt(int index) {
+            return ids[index];
+        }
+
+        public Candidate.Category categoryAt(int index) {
+            return categories[index];
+        }
+
+        public boolean isRound2QualifiedAt(int index) {
+            return round2Qualified[index];
+        }
+
+        public Candidate candidateAt(int index) {
+            return round1Candidates.get(index);
+        }
+
+        /**
+         * 某轮的候选人列表（第一轮为全部候选人，第二轮为晋级候选人）
+         */
+        public List<Candidate> candidates(int round) {
+            return round == 1 ? round1Candidates : round2Candidates;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.repository.CandidateRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 候选人 Excel 流式导入
+ * 以 SAX 事件方式逐行解析第一个工作表，不构建整个工作簿；已有姓名只查询姓名列，
+ * 新候选人按批写入数据库。内存占用只与已有候选人数和单批大小有关，与文件行数无关。
+ * 列顺序与模板一致：姓名、头衔、简介、类别(director/manager)、履历PDF链接。
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO candidate (id, election_id, name, title, description, pdf_url, category, is_round2_qualified, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    // 返回的逐行错误条数上限（errorCount 为实际错误总数）
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CandidateRepository candidateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CandidateBulkService candidateBulkService;
+
+    /**
+     * 单行错误
+     */
+    public record RowError(int row, String message) {
+    }
+
+    /**
+     * 导入文件中的候选人到指定选举（整个文件在一个事务中写入，提交后发布一次候选人变更事件）
+     * 上传内容应先落盘再按文件打开，避免将整个压缩包读入内存；文件由调用方删除。
+     *
+     * @param progress 每处理一行报告一次已读行数（总数未知时为 -1），取消时抛出异常使整个导入回滚
+     * @return successCount、skippedCount、skippedNames（与已有或文件内姓名重复）、errorCount、errors（逐行错误，行号从 1 开始）
+     */
+    @Transactional
+    public Map<String, Object> importCandidates(int electionId, Path file, JobProgress progress) throws Exception {
+        RowImporter importer = new RowImporter(electionId, new HashSet<>(candidateRepository.findAllNames(electionId)), progress);
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                            new ReadOnlySharedStringsTable(pkg), importer, new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        }
+        importer.flush();
+        if (importer.successCount > 0) {
+            candidateBulkService.changed(electionId);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("successCount", importer.successCount);
+        result.put("skippedCount", importer.skipped.size());
+        result.put("skippedNames", importer.skipped);
+        result.put("errorCount", importer.errorCount);
+        result.put("errors", importer.errors);
+        return result;
+    }
+
+    /**
+     * 逐行校验并按批写入候选人
+     */
+    private final class RowImporter implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int electionId;
+        private final Set<String> existingNames;
+        private final JobProgress progress;
+        private final String[] cells = new String[5];
+        private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<String> skipped = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int successCount;
+        private int errorCount;
+        private int nextColumn;
+
+        RowImporter(int electionId, Set<String> existingNames, JobProgress progress) {
+            this.electionId = electionId;
+            this.existingNames = existingNames;
+            this.progress = progress;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (column < cells.length) {
+                cells[column] = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            progress.update(rowNum + 1, -1);
+            // 跳过表头
+            if (rowNum == 0) {
+                return;
+            }
+            String name = trimToNull(cells[0]);
+            if (name == null) {
+                return;
+            }
+            int row = rowNum + 1;
+
+            // 去重检查（含文件内重复）
+            if (existingNames.contains(name)) {
+                skipped.add(name);
+                return;
+            }
+
+            String title = trimToNull(cells[1]);
+            String description = trimToNull(cells[2]);
+            String categoryValue = trimToNull(cells[3]);
+            String pdfUrl = trimToNull(cells[4]);
+            Candidate.Category category;
+            if (categoryValue == null || "director".equalsIgnoreCase(categoryValue)) {
+                category = Candidate.Category.director;
+            } else if ("manager".equalsIgnoreCase(categoryValue)) {
+                category = Candidate.Category.manager;
+            } else {
+                error(row, "类别只能是 director 或 manager: " + categoryValue);
+                return;
+            }
+            if (name.length() > 100) {
+                error(row, "姓名超过 100 个字符");
+                return;
+            }
+            if (title != null && title.length() > 200) {
+                error(row, "头衔超过 200 个字符");
+                return;
+            }
+            if (pdfUrl != null && pdfUrl.length() > 500) {
+                error(row, "履历PDF链接超过 500 个字符");
+                return;
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            batch.add(new Object[]{UUID.randomUUID().toString(), electionId, name, title, description, pdfUrl,
+                    category.name(), false, now, now});
+            existingNames.add(name);
+            successCount++;
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+
+        private void error(int row, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,104 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 共享计数表（candidate_tally，建表见 sql/candidate_tally.sql）
+ * 多实例部署时各实例的内存计数互不可见。共享模式（vote.tally.mode=shared）下选票与计数在同一事务中写入，
+ * 每个（选举、批次、轮次、候选人、投票类型）分为 N 个计数行：每个事务随机选一个分片累加，并发事务大多落在不同行上，
+ * 不会在同一热点行上排队。同一事务内按主键顺序更新以减少锁顺序冲突，但计数行首次插入时的间隙锁仍可能使并发事务死锁，
+ * 由 {@link BallotStore} 重试整个选票事务。
+ * 读取时按候选人汇总各分片，不再扫描选票表，但每次汇总仍读取（候选人数 × 3 种投票类型 + 1）× 2 轮 × 分片数 行，
+ * 例如 100 位候选人、16 个分片约 9600 行；每个已加载的选举每隔 vote.tally.refresh-ms 汇总一次，候选人多时应调大刷新周期或减少分片。
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateTallyStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO candidate_tally (election_id, epoch, round, candidate_id, vote_type, shard, cnt) VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE cnt = cnt + VALUES(cnt)";
+
+    private static final String SUM_SQL =
+            "SELECT round, candidate_id, vote_type, SUM(cnt) FROM candidate_tally WHERE election_id = ? AND epoch = ? "
+                    + "GROUP BY round, candidate_id, vote_type";
+
+    // 投票人数行的 candidate_id 与 vote_type
+    private static final String VOTERS = "";
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparingInt(Key::electionId)
+            .thenComparingInt(Key::epoch)
+            .thenComparingInt(Key::round)
+            .thenComparing(Key::candidateId)
+            .thenComparing(Key::voteType);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${vote.tally.mode:local}")
+    private String mode;
+
+    @Value("${vote.tally.shards:16}")
+    private int shards;
+
+    private record Key(int electionId, int epoch, int round, String candidateId, String voteType) {
+    }
+
+    /**
+     * 汇总后的一行计数
+     *
+     * @param voteType 为 null 时 count 是该轮投票人数
+     */
+    public record Count(int round, String candidateId, VoteRecord.VoteType voteType, long count) {
+    }
+
+    /**
+     * 是否启用共享计数
+     */
+    public boolean isEnabled() {
+        return "shared".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 累加选票计数，计入选票所属的批次（须在写入这些选票的事务中调用，随选票一起提交或回滚）
+     */
+    public void add(List<Ballot> ballots) {
+        if (ballots.isEmpty()) {
+            return;
+        }
+        Map<Key, long[]> deltas = new TreeMap<>(KEY_ORDER);
+        for (Ballot ballot : ballots) {
+            ballot.votes().forEach((candidateId, voteType) -> deltas.computeIfAbsent(
+                    new Key(ballot.electionId(), ballot.epoch(), ballot.round(), candidateId, voteType.name()), k -> new long[1])[0]++);
+            deltas.computeIfAbsent(new Key(ballot.electionId(), ballot.epoch(), ballot.round(), VOTERS, VOTERS), k -> new long[1])[0]++;
+        }
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[]{key.electionId(), key.epoch(), key.round(), key.candidateId(), key.voteType(), shard, delta[0]}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * 汇总选举指定批次各轮的计数（各分片之和）
+     */
+    public List<Count> sum(int electionId, int epoch) {
+        return jdbcTemplate.query(SUM_SQL, (rs, i) -> {
+            String voteType = rs.getString(3);
+            return new Count(rs.getInt(1), rs.getString(2),
+                    VOTERS.equals(voteType) ? null : VoteRecord.VoteType.valueOf(voteType), rs.getLong(4));
+        }, electionId, epoch);
+    }
+
+    /**
+     * 删除选举指定批次的计数（重建前调用）
+     */
+    public void clear(int electionId, int epoch) {
+        jdbcTemplate.update("DELETE FROM candidate_tally WHERE election_id = ? AND epoch = ?", electionId, epoch);
+    }
+}
@@ -0,0 +1,95 @@
+package com.vote.backend.service;
+
+import com.vote.backend.config.ReadReplicaConfig;
+import com.vote.backend.dto.VoteResultDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.ElectionArchive;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.repository.CandidateRepository;
+import com.vote.backend.repository.ElectionArchiveRepository;
+import com.vote.backend.repository.VoteConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 选举批次归档
+ * 选票按批次（epoch）存储。重置投票不再逐行删除选票，而是记录一条归档并把当前批次号加一，
+ * 只写两行，耗时与选票数量无关；旧批次的选票原样保留，可按批次查询结果与单张选票。
+ */
+@Service
+@RequiredArgsConstructor
+public class ElectionArchiveService {
+
+    private final ElectionArchiveRepository electionArchiveRepository;
+    private final VoteConfigRepository voteConfigRepository;
+    private final CandidateRepository candidateRepository;
+    private final VoteTallyService voteTallyService;
+    private final BallotStore ballotStore;
+
+    /**
+     * 归档当前批次并切换到新批次，配置回到未开始状态
+     *
+     * @return 保存后的配置，由调用方发布配置快照
+     */
+    @Transactional
+    public VoteConfig archiveAndAdvance(VoteConfig config) {
+        int epoch = config.getCurrentEpoch() != null ? config.getCurrentEpoch() : 1;
+        ElectionArchive archive = new ElectionArchive();
+        archive.setElectionId(config.getId());
+        archive.setEpoch(epoch);
+        archive.setFinalStatus(config.getCurrentStatus());
+        // 共享计数模式下先同步计数表的最新汇总，归档人数不受刷新间隔影响
+        voteTallyService.reload(config.getId());
+        archive.setRound1Voters(voteTallyService.getVoterCount(config.getId(), 1));
+        archive.setRound2Voters(voteTallyService.getVoterCount(config.getId(), 2));
+        archive.setArchivedAt(LocalDateTime.now());
+        electionArchiveRepository.save(archive);
+
+        config.setCurrentEpoch(epoch + 1);
+        config.setCurrentStatus(VoteConfig.Status.not_started);
+        return voteConfigRepository.save(config);
+    }
+
+    /**
+     * 选举的所有归档（新的在前，读写分离时走只读副本）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public List<ElectionArchive> list(int electionId) {
+        return electionArchiveRepository.findByElectionIdOrderByEpochDesc(electionId);
+    }
+
+    /**
+     * 选举指定批次某轮的结果（按赞成票排序）
+     * 逐张读取该批次的选票统计，不经过内存计票，用于查询历史批次（读写分离时走只读副本）；已删除的候选人只返回ID。
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public List<VoteResultDTO> getResults(int electionId, int epoch, int round) {
+        Map<String, long[]> counts = new HashMap<>();
+        ballotStore.forEachBallot(electionId, epoch, round, ballot -> ballot.votes().forEach((candidateId, voteType) ->
+                counts.computeIfAbsent(candidateId, k -> new long[VoteRecord.VoteType.values().length])[voteType.ordinal()]++));
+
+        Map<String, Candidate> candidates = candidateRepository.findAllById(counts.keySet()).stream()
+                .collect(Collectors.toMap(Candidate::getId, Function.identity()));
+        List<VoteResultDTO> results = new ArrayList<>(counts.size());
+        counts.forEach((candidateId, c) -> {
+            Candidate candidate = candidates.get(candidateId);
+            VoteResultDTO dto = new VoteResultDTO();
+            dto.setCandidateId(candidateId);
+            dto.setCandidateName(candidate != null ? candidate.getName() : null);
+            dto.setCategory(candidate != null && candidate.getCategory() != null ? candidate.getCategory().name() : null);
+            dto.setApproveCount(c[VoteRecord.VoteType.approve.ordinal()]);
+            dto.setOpposeCount(c[VoteRecord.VoteType.oppose.ordinal()]);
+            dto.setAbstainCount(c[VoteRecord.VoteType.abstain.ordinal()]);
+            results.add(dto);
+        });
+        results.sort((a, b) -> Long.compare(b.getApproveCount(), a.getApproveCount()));
+        return results;
+    }
+}
@@ -0,0 +1,118 @@
+package com.vote.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 选举内存状态的预算管理
+ * 投票端与大屏每次访问都会记录选举的最近访问时间。各选举的内存状态（配置、候选人目录、计票、
+ * 已投票索引、预渲染响应）合计超过预算时，按最近访问时间从早到晚淘汰空闲的选举，
+ * 直到回到预算以内；被淘汰的选举下次访问时从数据库重新加载。
+ * 只淘汰空闲超过 min-idle-ms 的选举：该时间远大于选票日志落库间隔，淘汰时其选票均已落库，
+ * 重新加载得到的计票与已投票索引是完整的。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ElectionHotState {
+
+    private final List<ElectionScopedState> states;
+
+    @Value("${vote.elections.memory-budget-mb:256}")
+    private long memoryBudgetMb;
+
+    @Value("${vote.elections.min-idle-ms:600000}")
+    private long minIdleMs;
+
+    // electionId -> 最近访问时间（毫秒）
+    private final Map<Integer, Long> lastAccess = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次访问
+     */
+    public void touch(int electionId) {
+        lastAccess.put(electionId, System.currentTimeMillis());
+    }
+
+    /**
+     * 超出预算时淘汰空闲的选举
+     */
+    @Scheduled(fixedDelayString = "${vote.elections.check-ms:30000}")
+    public void enforceBudget() {
+        Map<Integer, Long> usage = usage();
+        long total = usage.values().stream().mapToLong(Long::longValue).sum();
+        long budget = memoryBudgetMb * 1024 * 1024;
+        if (total <= budget) {
+            return;
+        }
+        long idleBefore = System.currentTimeMillis() - minIdleMs;
+        List<Integer> idle = usage.keySet().stream()
+                .filter(id -> lastAccess.getOrDefault(id, 0L) < idleBefore)
+                .sorted(Comparator.comparingLong(id -> lastAccess.getOrDefault(id, 0L)))
+                .toList();
+        for (int electionId : idle) {
+            if (total <= budget) {
+                break;
+            }
+            total -= usage.get(electionId);
+            evict(electionId);
+            log.info("选举 {} 空闲，已释放其内存状态（约 {} KB）", electionId, usage.get(electionId) / 1024);
+        }
+        if (total > budget) {
+            log.warn("选举内存状态约 {} MB，超出预算 {} MB，但其余选举均在使用中", total / 1024 / 1024, memoryBudgetMb);
+        }
+    }
+
+    /**
+     * 立即丢弃某选举的内存状态
+     */
+    public void evict(int electionId) {
+        states.forEach(state -> state.evict(electionId));
+        lastAccess.remove(electionId);
+    }
+
+    /**
+     * 各已加载选举的内存估算与最近访问时间
+     */
+    public Map<String, Object> getStats() {
+        Map<Integer, Long> usage = usage();
+        List<Map<String, Object>> elections = new ArrayList<>();
+        usage.forEach((electionId, bytes) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("electionId", electionId);
+            item.put("estimatedBytes", bytes);
+            Long accessed = lastAccess.get(electionId);
+            item.put("lastAccessAt", accessed != null ? Instant.ofEpochMilli(accessed) : null);
+            elections.add(item);
+        });
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("budgetBytes", memoryBudgetMb * 1024 * 1024);
+        stats.put("estimatedBytes", usage.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("elections", elections);
+        return stats;
+    }
+
+    /**
+     * 已加载选举数
+     */
+    public int loadedCount() {
+        return usage().size();
+    }
+
+    private Map<Integer, Long> usage() {
+        Map<Integer, Long> usage = new TreeMap<>();
+        for (ElectionScopedState state : states) {
+            for (int electionId : state.loadedElections()) {
+                usage.merge(electionId, state.estimateBytes(electionId), Long::sum);
+            }
+        }
+        return usage;
+    }
+}
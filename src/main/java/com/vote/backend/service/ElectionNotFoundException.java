@@ -0,0 +1,11 @@
+package com.vote.backend.service;
+
+/**
+ * 请求的选举不存在
+ */
+public class ElectionNotFoundException extends RuntimeException {
+
+    public ElectionNotFoundException(int electionId) {
+        super("选举不存在: " + electionId);
+    }
+}
@@ -0,0 +1,25 @@
+package com.vote.backend.service;
+
+import java.util.Set;
+
+/**
+ * 按选举划分的内存状态
+ * 各选举的状态在首次访问时从数据库加载，由 {@link ElectionHotState} 按内存预算统一淘汰，淘汰后再次访问时重新加载。
+ */
+public interface ElectionScopedState {
+
+    /**
+     * 已加载的选举
+     */
+    Set<Integer> loadedElections();
+
+    /**
+     * 某选举内存占用的估算（字节），未加载时为 0
+     */
+    long estimateBytes(int electionId);
+
+    /**
+     * 丢弃某选举的内存状态
+     */
+    void evict(int electionId);
+}
@@ -0,0 +1,59 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Election;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.repository.ElectionRepository;
+import com.vote.backend.repository.VoteConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 选举管理
+ * 每个选举有独立的配置、候选人与选票，新建时同时写入一行同ID的投票配置。
+ */
+@Service
+@RequiredArgsConstructor
+public class ElectionService {
+
+    private final ElectionRepository electionRepository;
+    private final VoteConfigRepository voteConfigRepository;
+
+    /**
+     * 所有选举
+     */
+    public List<Election> list() {
+        return electionRepository.findAll();
+    }
+
+    /**
+     * 新建选举
+     *
+     * @param copyFromElectionId 为空时使用默认配置，否则复制该选举的限票与名额设置
+     */
+    @Transactional
+    public Election create(String name, Integer copyFromElectionId) {
+        VoteConfig config = new VoteConfig();
+        if (copyFromElectionId != null) {
+            VoteConfig source = voteConfigRepository.findById(copyFromElectionId)
+                    .orElseThrow(() -> new ElectionNotFoundException(copyFromElectionId));
+            config.setRound1DirectorMaxApprove(source.getRound1DirectorMaxApprove());
+            config.setRound1ManagerMaxApprove(source.getRound1ManagerMaxApprove());
+            config.setRound2DirectorMaxApprove(source.getRound2DirectorMaxApprove());
+            config.setRound2ManagerMaxApprove(source.getRound2ManagerMaxApprove());
+            config.setDirectorQualifyCount(source.getDirectorQualifyCount());
+            config.setManagerQualifyCount(source.getManagerQualifyCount());
+            config.setDirectorElectCount(source.getDirectorElectCount());
+            config.setManagerElectCount(source.getManagerElectCount());
+        }
+
+        Election election = new Election();
+        election.setName(name);
+        election = electionRepository.save(election);
+        config.setId(election.getId());
+        voteConfigRepository.save(config);
+        return election;
+    }
+}
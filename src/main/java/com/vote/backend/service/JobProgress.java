@@ -0,0 +1,20 @@
+package com.vote.backend.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 后台任务进度回调
+ * 长时间运行的操作定期调用 {@link #update} 报告进度；任务已被取消时抛出 {@link CancellationException}，
+ * 调用方无需单独检查取消状态。同步调用时传入 {@link #NONE}。
+ */
+@FunctionalInterface
+public interface JobProgress {
+
+    JobProgress NONE = (done, total) -> {
+    };
+
+    /**
+     * 报告进度，total 未知时为 -1
+     */
+    void update(long done, long total) throws CancellationException;
+}
@@ -0,0 +1,182 @@
+package com.vote.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 大屏实时结果推送（SSE）
+ * 按选举分频道，每个推送周期每个选举只计算并序列化一次结果，再将同一份字节广播给该选举所有连接的大屏。
+ * 首次连接推送完整快照（snapshot），之后只推送票数有变化的候选人（delta）。
+ * 计数、配置快照与候选人目录的版本都未变化时不重新计算；新连接在推送周期的同一把锁下发送快照并加入频道，
+ * 不会漏掉快照与加入之间产生的增量。
+ */
+@Service
+@RequiredArgsConstructor
+public class LiveResultsBroadcaster {
+
+    private final VoteService voteService;
+    private final VoteTallyService voteTallyService;
+    private final VoteConfigCache voteConfigCache;
+    private final ObjectMapper objectMapper;
+
+    // electionId -> 该选举的大屏连接与推送状态
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+
+    @Value("${vote.live.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    /**
+     * 一个选举的推送频道
+     */
+    private static final class Channel {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // 上一次推送的完整快照（供新连接直接发送）
+        private volatile byte[] lastSnapshotBytes;
+        // 上一次推送时各候选人的赞成票数
+        private Map<String, Object> lastCandidates = Map.of();
+        private Object lastStatus;
+        private Object lastVoterCount;
+        private long lastTallyVersion = -1;
+        private long lastConfigVersion = -1;
+        private long lastCatalogVersion = -1;
+    }
+
+    /**
+     * 注册一个大屏连接，并立即发送完整快照
+     */
+    public SseEmitter subscribe(int electionId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Channel channel = channels.computeIfAbsent(electionId, k -> new Channel());
+        emitter.onCompletion(() -> channel.emitters.remove(emitter));
+        emitter.onTimeout(() -> channel.emitters.remove(emitter));
+        emitter.onError(e -> channel.emitters.remove(emitter));
+
+        synchronized (this) {
+            byte[] snapshot = channel.lastSnapshotBytes;
+            if (snapshot == null) {
+                snapshot = objectMapper.writeValueAsBytes(voteService.getLiveResults(electionId));
+            }
+            if (send(emitter, "snapshot", snapshot)) {
+                channel.emitters.add(emitter);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * 按推送周期合并计票变化，每个选举每周期只计算一次
+     */
+    @Scheduled(fixedDelayString = "${vote.live.stream-tick-ms:250}")
+    public synchronized void tick() {
+        channels.forEach((electionId, channel) -> {
+            try {
+                tick(electionId, channel);
+            } catch (ElectionNotFoundException e) {
+                channels.remove(electionId);
+            }
+        });
+    }
+
+    private void tick(int electionId, Channel channel) {
+        if (channel.emitters.isEmpty()) {
+            // 无连接时不计算，下次有连接时重新发送快照
+            channel.lastSnapshotBytes = null;
+            channel.lastTallyVersion = -1;
+            return;
+        }
+        // 先取版本再计算：计算期间的变化会使下个周期的版本不同
+        long tallyVersion = voteTallyService.getVersion(electionId);
+        long configVersion = voteConfigCache.get(electionId).getVersion();
+        long catalogVersion = voteService.getCandidatesVersion(electionId);
+        if (tallyVersion == channel.lastTallyVersion && configVersion == channel.lastConfigVersion
+                && catalogVersion == channel.lastCatalogVersion) {
+            return;
+        }
+        Map<String, Object> results = voteService.getLiveResults(electionId);
+        Map<String, Object> candidates = indexCandidates(results);
+        Object status = results.get("currentStatus");
+        Object voterCount = results.get("voterCount");
+
+        boolean structureChanged = channel.lastTallyVersion < 0
+                || !Objects.equals(status, channel.lastStatus)
+                || !candidates.keySet().equals(channel.lastCandidates.keySet());
+
+        byte[] snapshot = objectMapper.writeValueAsBytes(results);
+        if (structureChanged) {
+            broadcast(channel, "snapshot", snapshot);
+        } else {
+            List<Object> changed = new ArrayList<>();
+            candidates.forEach((id, candidate) -> {
+                if (!Objects.equals(candidate, channel.lastCandidates.get(id))) {
+                    changed.add(candidate);
+                }
+            });
+            if (!changed.isEmpty() || !Objects.equals(voterCount, channel.lastVoterCount)) {
+                Map<String, Object> delta = new HashMap<>();
+                delta.put("currentStatus", status);
+                delta.put("currentRound", results.get("currentRound"));
+                delta.put("voterCount", voterCount);
+                delta.put("changed", changed);
+                broadcast(channel, "delta", objectMapper.writeValueAsBytes(delta));
+            }
+        }
+
+        channel.lastSnapshotBytes = snapshot;
+        channel.lastCandidates = candidates;
+        channel.lastStatus = status;
+        channel.lastVoterCount = voterCount;
+        channel.lastTallyVersion = tallyVersion;
+        channel.lastConfigVersion = configVersion;
+        channel.lastCatalogVersion = catalogVersion;
+    }
+
+    /**
+     * 当前连接数（所有选举合计）
+     */
+    public int getSubscriberCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.emitters.size();
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> indexCandidates(Map<String, Object> results) {
+        Map<String, Object> index = new HashMap<>();
+        for (String key : List.of("directors", "managers")) {
+            for (Map<String, Object> c : (List<Map<String, Object>>) results.get(key)) {
+                index.put((String) c.get("id"), c);
+            }
+        }
+        return index;
+    }
+
+    private void broadcast(Channel channel, String eventName, byte[] payload) {
+        for (SseEmitter emitter : channel.emitters) {
+            if (!send(emitter, eventName, payload)) {
+                channel.emitters.remove(emitter);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String eventName, byte[] payload) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压缩选票编解码
+ * 按候选人排列中的位置，每位候选人占 2 位：0 未投，1 赞成，2 反对，3 弃权。
+ */
+public final class PackedBallotCodec {
+
+    private static final VoteRecord.VoteType[] VOTE_TYPES = VoteRecord.VoteType.values();
+
+    private PackedBallotCodec() {
+    }
+
+    /**
+     * 编码选票，positions 为候选人ID到排列位置的映射
+     */
+    public static byte[] encode(Map<String, VoteRecord.VoteType> votes, Map<String, Integer> positions, int size) {
+        byte[] packed = new byte[(size + 3) / 4];
+        for (Map.Entry<String, VoteRecord.VoteType> vote : votes.entrySet()) {
+            Integer position = positions.get(vote.getKey());
+            if (position == null) {
+                throw new IllegalArgumentException("候选人不在排列中: " + vote.getKey());
+            }
+            int code = vote.getValue().ordinal() + 1;
+            packed[position >> 2] |= (byte) (code << ((position & 3) << 1));
+        }
+        return packed;
+    }
+
+    /**
+     * 解码选票，layout 为该选票写入时的候选人排列
+     */
+    public static Map<String, VoteRecord.VoteType> decode(byte[] packed, List<String> layout) {
+        Map<String, VoteRecord.VoteType> votes = new LinkedHashMap<>();
+        int size = Math.min(layout.size(), packed.length * 4);
+        for (int i = 0; i < size; i++) {
+            int code = (packed[i >> 2] >> ((i & 3) << 1)) & 3;
+            if (code != 0) {
+                votes.put(layout.get(i), VOTE_TYPES[code - 1]);
+            }
+        }
+        return votes;
+    }
+}
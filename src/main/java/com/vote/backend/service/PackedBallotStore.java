@@ -0,0 +1,159 @@
+package com.vote.backend.service;
+
+import com.vote.backend.config.ReadReplicaConfig;
+import com.vote.backend.repository.PackedBallotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 压缩选票存储
+ * 压缩模式（vote.storage.layout=packed）下每个投票人每轮只写一行 packed_ballot，
+ * 选择按候选人排列版本压缩为每人 2 位。提供计票、导出、审计所需的解码读取，
+ * 以及从 vote_record 迁移的方法。
+ */
+@Service
+@RequiredArgsConstructor
+public class PackedBallotStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO packed_ballot (election_id, epoch, voter_id, round, layout_version, choices, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IGNORE_SQL =
+            "INSERT IGNORE INTO packed_ballot (election_id, epoch, voter_id, round, layout_version, choices, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MIGRATE_BATCH_SIZE = 500;
+
+    private final PackedBallotRepository packedBallotRepository;
+    private final BallotLayoutService ballotLayoutService;
+    private final JdbcTemplate jdbcTemplate;
+    private final VoteConfigCache voteConfigCache;
+
+    @Value("${vote.storage.layout:rows}")
+    private String layout;
+
+    @Value("${vote.storage.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * 是否启用压缩存储
+     */
+    public boolean isEnabled() {
+        return "packed".equalsIgnoreCase(layout);
+    }
+
+    /**
+     * 批量写入选票（按选票自身的选举与批次），ignoreDuplicates 为 true 时忽略已存在的 (election_id, epoch, voter_id, round)
+     */
+    public void insert(List<Ballot> ballots, boolean ignoreDuplicates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ballots.size());
+        for (Ballot ballot : ballots) {
+            BallotLayoutService.Layout current = ballotLayoutService.resolve(ballot.electionId(), ballot.votes().keySet());
+            byte[] choices = PackedBallotCodec.encode(ballot.votes(), current.positions(), current.candidateIds().size());
+            rows.add(new Object[]{ballot.electionId(), ballot.epoch(), ballot.voterId(), ballot.round(), current.version(), choices, now});
+        }
+        jdbcTemplate.batchUpdate(ignoreDuplicates ? INSERT_IGNORE_SQL : INSERT_SQL, rows);
+    }
+
+    /**
+     * 逐张读取选举当前批次某轮所有选票（流式，内存占用与选票数量无关；读写分离时走只读副本）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public void forEachBallot(int electionId, int round, Consumer<Ballot> consumer) {
+        forEachBallot(electionId, voteConfigCache.get(electionId).getCurrentEpoch(), round, consumer);
+    }
+
+    /**
+     * 逐张读取选举指定批次某轮所有选票（读写分离时走只读副本；计票加载在主库事务中调用，沿用主库连接）
+     */
+    @Transactional(readOnly = true, label = ReadReplicaConfig.REPLICA)
+    public void forEachBallot(int electionId, int epoch, int round, Consumer<Ballot> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT voter_id, layout_version, choices FROM packed_ballot WHERE election_id = ? AND epoch = ? AND round = ?",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setInt(1, electionId);
+            ps.setInt(2, epoch);
+            ps.setByte(3, (byte) round);
+            return ps;
+        }, rs -> {
+            BallotLayoutService.Layout layout = ballotLayoutService.get(electionId, rs.getInt("layout_version"));
+            consumer.accept(new Ballot(electionId, epoch, rs.getString("voter_id"), round,
+                    PackedBallotCodec.decode(rs.getBytes("choices"), layout.candidateIds())));
+        });
+    }
+
+    /**
+     * 查询某投票人在选举指定批次某轮的选票（审计用）
+     */
+    public Optional<Ballot> findBallot(int electionId, int epoch, String voterId, int round) {
+        return packedBallotRepository.findByElectionIdAndEpochAndVoterIdAndRound(electionId, epoch, voterId, (byte) round)
+                .map(p -> new Ballot(electionId, epoch, voterId, round, PackedBallotCodec.decode(
+                        p.getChoices(), ballotLayoutService.get(electionId, p.getLayoutVersion()).candidateIds())));
+    }
+
+    /**
+     * 选举当前批次某轮已投票的投票人ID
+     */
+    public List<String> findVoterIds(int electionId, int round) {
+        return packedBallotRepository.findVoterIdsByRound(electionId,
+                voteConfigCache.get(electionId).getCurrentEpoch(), (byte) round);
+    }
+
+    /**
+     * 选举当前批次某轮已投票人数
+     */
+    public long countVoters(int electionId, int round) {
+        return packedBallotRepository.countByElectionIdAndEpochAndRound(electionId,
+                voteConfigCache.get(electionId).getCurrentEpoch(), (byte) round);
+    }
+
+    /**
+     * 将选举当前批次 vote_record 中的逐候选人记录迁移为压缩选票（可重复执行，已迁移的选票被忽略）
+     *
+     * @return 每轮迁移的选票数
+     */
+    @Transactional
+    public Map<Integer, Integer> migrateFromRows(int electionId) {
+        int epoch = voteConfigCache.get(electionId).getCurrentEpoch();
+        Map<Integer, Integer> migrated = new LinkedHashMap<>();
+        for (int round = 1; round <= 2; round++) {
+            final int r = round;
+            List<Ballot> batch = new ArrayList<>(MIGRATE_BATCH_SIZE);
+            BallotRowGrouper grouper = new BallotRowGrouper(electionId, epoch, r, ballot -> {
+                batch.add(ballot);
+                if (batch.size() >= MIGRATE_BATCH_SIZE) {
+                    insert(batch, true);
+                    batch.clear();
+                }
+            });
+            // 按投票人排序读取，相邻记录聚合为一张选票
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(BallotRowGrouper.SELECT_BY_ROUND,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setInt(1, electionId);
+                ps.setInt(2, epoch);
+                ps.setByte(3, (byte) r);
+                return ps;
+            }, grouper);
+            int count = grouper.finish();
+            if (!batch.isEmpty()) {
+                insert(batch, true);
+            }
+            migrated.put(round, count);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,122 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 第一轮晋级名单预览
+ * 基于内存计票与候选人目录，按任意晋级名额计算当前会晋级的候选人，不访问数据库。
+ * 每个类别用容量为名额的小顶堆做一次有界 Top-K 选择（O(n log k)），
+ * 再扫描一遍找出与末位同票的候选人：同票人数超过剩余名额时作为并列组单独标出。
+ */
+@Service
+@RequiredArgsConstructor
+public class QualifyPreviewService {
+
+    private final CandidateCatalog candidateCatalog;
+    private final VoteTallyService voteTallyService;
+
+    private record Scored(Candidate candidate, long approve) {
+    }
+
+    /**
+     * 按指定名额预览选举第一轮的晋级名单
+     */
+    public Map<String, Object> preview(int electionId, int directorQualifyCount, int managerQualifyCount) {
+        List<Scored> directors = new ArrayList<>();
+        List<Scored> managers = new ArrayList<>();
+        for (Candidate c : candidateCatalog.get(electionId).candidates(1)) {
+            Scored scored = new Scored(c, voteTallyService.getApproveCount(electionId, 1, c.getId()));
+            (c.getCategory() == Candidate.Category.manager ? managers : directors).add(scored);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("voterCount", voteTallyService.getVoterCount(electionId, 1));
+        result.put("directors", select(directors, directorQualifyCount));
+        result.put("managers", select(managers, managerQualifyCount));
+        return result;
+    }
+
+    /**
+     * 选出得票最高的 k 位
+     *
+     * @return qualifyCount；cutoffApprove（末位晋级者的赞成票，全部晋级时为空）；
+     * qualified（确定晋级，按赞成票降序）；tie（末位并列组：赞成票、剩余名额、并列候选人，无并列时为空）
+     */
+    private Map<String, Object> select(List<Scored> candidates, int k) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("qualifyCount", k);
+        result.put("candidateCount", candidates.size());
+        if (k <= 0) {
+            result.put("cutoffApprove", null);
+            result.put("qualified", List.of());
+            result.put("tie", null);
+            return result;
+        }
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(k, Math.max(candidates.size(), 1)),
+                Comparator.comparingLong(Scored::approve));
+        for (Scored s : candidates) {
+            if (top.size() < k) {
+                top.add(s);
+            } else if (s.approve() > top.peek().approve()) {
+                top.poll();
+                top.add(s);
+            }
+        }
+        if (top.size() < k) {
+            // 候选人不多于名额，全部晋级
+            result.put("cutoffApprove", null);
+            result.put("qualified", view(sortDesc(new ArrayList<>(top))));
+            result.put("tie", null);
+            return result;
+        }
+
+        long cutoff = top.peek().approve();
+        List<Scored> certain = new ArrayList<>(k);
+        for (Scored s : top) {
+            if (s.approve() > cutoff) {
+                certain.add(s);
+            }
+        }
+        List<Scored> atCutoff = new ArrayList<>();
+        for (Scored s : candidates) {
+            if (s.approve() == cutoff) {
+                atCutoff.add(s);
+            }
+        }
+        int seats = k - certain.size();
+        Map<String, Object> tie = null;
+        if (atCutoff.size() > seats) {
+            tie = new LinkedHashMap<>();
+            tie.put("approveCount", cutoff);
+            tie.put("seats", seats);
+            tie.put("candidates", view(atCutoff));
+        } else {
+            certain.addAll(atCutoff);
+        }
+        result.put("cutoffApprove", cutoff);
+        result.put("qualified", view(sortDesc(certain)));
+        result.put("tie", tie);
+        return result;
+    }
+
+    private static List<Scored> sortDesc(List<Scored> list) {
+        list.sort(Comparator.comparingLong(Scored::approve).reversed());
+        return list;
+    }
+
+    private static List<Map<String, Object>> view(List<Scored> list) {
+        List<Map<String, Object>> view = new ArrayList<>(list.size());
+        for (Scored s : list) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", s.candidate().getId());
+            m.put("name", s.candidate().getName());
+            m.put("approveCount", s.approve());
+            view.add(m);
+        }
+        return view;
+    }
+}
@@ -0,0 +1,170 @@
+package com.vote.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预渲染响应缓存
+ * 按选举与数据版本将响应体序列化一次，同时保存 gzip 版本和强 ETag（两种编码的 ETag 不同，gzip 版本带 -gz 后缀）；
+ * 请求带 If-None-Match 且匹配所选编码的 ETag 时直接返回 304，否则按 Accept-Encoding（含 q 值）返回缓存的字节。
+ */
+@Service
+@RequiredArgsConstructor
+public class RenderedResponseCache implements ElectionScopedState {
+
+    private final ObjectMapper objectMapper;
+
+    // electionId -> key -> 渲染结果
+    private final Map<Integer, Map<String, Rendered>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 某一版本数据的渲染结果
+     */
+    public record Rendered(long version, byte[] body, byte[] gzipBody, String etag, String gzipEtag) {
+    }
+
+    /**
+     * 获取渲染结果，版本变化时重新序列化
+     */
+    public Rendered render(int electionId, String key, long version, Supplier<Object> body) {
+        Map<String, Rendered> election = cache.computeIfAbsent(electionId, k -> new ConcurrentHashMap<>());
+        Rendered rendered = election.get(key);
+        if (rendered != null && rendered.version() == version) {
+            return rendered;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(body.get());
+        String etag = etag(bytes);
+        // 强 ETag 要求字节相同，压缩内容不能与原文共用同一个 ETag
+        rendered = new Rendered(version, bytes, gzip(bytes), etag, etag.substring(0, etag.length() - 1) + "-gz\"");
+        election.put(key, rendered);
+        return rendered;
+    }
+
+    @Override
+    public Set<Integer> loadedElections() {
+        return cache.keySet();
+    }
+
+    @Override
+    public long estimateBytes(int electionId) {
+        Map<String, Rendered> election = cache.get(electionId);
+        if (election == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (Rendered rendered : election.values()) {
+            bytes += rendered.body().length + rendered.gzipBody().length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void evict(int electionId) {
+        cache.remove(electionId);
+    }
+
+    /**
+     * 生成响应：客户端接受 gzip 时返回压缩内容，If-None-Match 匹配所选编码的 ETag 时返回 304
+     */
+    public ResponseEntity<byte[]> respond(Rendered rendered, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? rendered.gzipEtag() : rendered.etag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl("no-cache");
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (matches(ifNoneMatch, etag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(rendered.gzipBody(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(rendered.body(), headers, HttpStatus.OK);
+    }
+
+    // If-None-Match 是否包含该 ETag（逐个比较，弱比较忽略 W/ 前缀，* 匹配任意）
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 是否接受 gzip：列出 gzip 时按其 q 值，否则按 * 的 q 值；q=0 表示不接受
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
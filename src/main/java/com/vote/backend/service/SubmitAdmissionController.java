@@ -0,0 +1,186 @@
+package com.vote.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 投票提交准入控制
+ * 并发上限初始等于数据库连接池大小，超过上限的请求进入有界等待队列；
+ * 队列已满立即拒绝（429），排队超时拒绝（503），并给出 Retry-After 建议。
+ * 上限按提交耗时自适应调整：耗时超过目标时乘性减小，耗时正常且并发跑满时加性增大。
+ */
+@Slf4j
+@Service
+public class SubmitAdmissionController {
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${vote.admission.max-limit:40}")
+    private int maxLimit;
+
+    @Value("${vote.admission.max-queue:200}")
+    private int maxQueue;
+
+    @Value("${vote.admission.max-wait-ms:3000}")
+    private long maxWaitMs;
+
+    @Value("${vote.admission.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    // 提交耗时的指数滑动平均（纳秒）
+    private double avgLatencyNanos;
+    private long lastDecreaseNanos;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * 准入结果
+     */
+    public enum Outcome {
+        admitted, queue_full, timeout
+    }
+
+    /**
+     * 准入许可，处理完成后必须调用 {@link #release}
+     */
+    public record Permit(Outcome outcome, long startNanos, int retryAfterSeconds) {
+
+        public boolean isAdmitted() {
+            return outcome == Outcome.admitted;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        limit = Math.max(1, poolSize);
+    }
+
+    /**
+     * 申请提交许可，必要时排队等待
+     */
+    public Permit acquire() {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.incrementAndGet();
+                return new Permit(Outcome.admitted, start, 0);
+            }
+            if (waiting >= maxQueue) {
+                rejectedQueueFull.incrementAndGet();
+                return new Permit(Outcome.queue_full, start, retryAfterSeconds());
+            }
+            waiting++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejectedTimeout.incrementAndGet();
+                        return new Permit(Outcome.timeout, start, retryAfterSeconds());
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedTimeout.incrementAndGet();
+                return new Permit(Outcome.timeout, start, retryAfterSeconds());
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            admitted.incrementAndGet();
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return new Permit(Outcome.admitted, System.nanoTime(), 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还许可，并根据本次耗时调整并发上限
+     */
+    public void release(Permit permit) {
+        if (!permit.isAdmitted()) {
+            return;
+        }
+        long latency = System.nanoTime() - permit.startNanos();
+        lock.lock();
+        try {
+            avgLatencyNanos = avgLatencyNanos == 0 ? latency : avgLatencyNanos * 0.9 + latency * 0.1;
+            int previousLimit = (int) limit;
+            boolean saturated = inFlight >= previousLimit;
+            inFlight--;
+            long now = System.nanoTime();
+            if (latency > TimeUnit.MILLISECONDS.toNanos(targetLatencyMs)) {
+                // 同一批慢请求只收缩一次，避免上限在一次抖动中被连续压低
+                if (now - lastDecreaseNanos > avgLatencyNanos) {
+                    limit = Math.max(1, limit * 0.9);
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            if ((int) limit > previousLimit) {
+                // 上限提高后空出的许可多于一个，唤醒所有排队者各自重新检查
+                available.signalAll();
+            } else {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 准入控制指标快照
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            metrics.put("limit", (int) limit);
+            metrics.put("inFlight", inFlight);
+            metrics.put("queueDepth", waiting);
+            metrics.put("avgLatencyMs", avgLatencyNanos / 1_000_000);
+        } finally {
+            lock.unlock();
+        }
+        long admittedCount = admitted.get();
+        metrics.put("admitted", admittedCount);
+        metrics.put("rejectedQueueFull", rejectedQueueFull.get());
+        metrics.put("rejectedTimeout", rejectedTimeout.get());
+        metrics.put("avgWaitMs", admittedCount == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / admittedCount);
+        metrics.put("maxWaitMs", maxWaitNanos.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    // 按当前排队人数与平均耗时估算重试等待秒数（调用方已持有锁）
+    private int retryAfterSeconds() {
+        double perRequestNanos = avgLatencyNanos == 0 ? TimeUnit.MILLISECONDS.toNanos(targetLatencyMs) : avgLatencyNanos;
+        double seconds = (waiting + 1) * perRequestNanos / Math.max(1, limit) / 1_000_000_000;
+        return (int) Math.max(1, Math.ceil(seconds));
+    }
+}
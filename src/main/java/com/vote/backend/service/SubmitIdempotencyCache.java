@@ -0,0 +1,143 @@
+package com.vote.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 投票提交幂等缓存
+ * 同一幂等键只执行一次：执行中的重复请求等待首次请求的结果，已成功的请求直接返回原结果；
+ * 首次请求失败时不缓存，重试会重新执行。
+ * 缓存按写入顺序淘汰，超过条数上限或存活时间的记录被清除。
+ */
+@Service
+public class SubmitIdempotencyCache {
+
+    @Value("${vote.idempotency.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${vote.idempotency.ttl-ms:1800000}")
+    private long ttlMs;
+
+    @Value("${vote.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 写入顺序，用于按条数与存活时间淘汰
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    private record Entry(String key, Object fingerprint, long createdNanos, CompletableFuture<Object> result) {
+    }
+
+    /**
+     * 幂等键已用于内容不同的请求
+     */
+    public static class KeyConflictException extends RuntimeException {
+        KeyConflictException() {
+            super("幂等键已用于内容不同的选票");
+        }
+    }
+
+    /**
+     * 等待同一幂等键的首次请求超时
+     */
+    public static class WaitTimeoutException extends RuntimeException {
+        WaitTimeoutException() {
+            super("相同的投票请求正在处理，请稍后重试");
+        }
+    }
+
+    /**
+     * 以幂等方式执行 action
+     *
+     * @param fingerprint 请求内容指纹（按 equals 比较，应由完整内容确定，不能用 hashCode 代替），同一键下指纹不同视为冲突
+     * @param reusable    判断结果是否可复用（通常只复用成功结果）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object fingerprint, Supplier<T> action, Predicate<T> reusable) {
+        Entry created = new Entry(key, fingerprint, System.nanoTime(), new CompletableFuture<>());
+        Entry existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            if (!Objects.equals(existing.fingerprint(), fingerprint)) {
+                throw new KeyConflictException();
+            }
+            return (T) await(existing);
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.result().completeExceptionally(e);
+            throw e;
+        }
+        if (reusable.test(result)) {
+            order.add(created);
+            evictOverflow();
+        } else {
+            entries.remove(key, created);
+        }
+        created.result().complete(result);
+        return result;
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.result().get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new WaitTimeoutException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WaitTimeoutException();
+        } catch (ExecutionException e) {
+            // 首次请求失败，重复请求得到相同的异常
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxEntries) {
+            Entry oldest = order.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.key(), oldest);
+        }
+    }
+
+    /**
+     * 定时清除超过存活时间的记录
+     */
+    @Scheduled(fixedDelayString = "${vote.idempotency.sweep-ms:60000}")
+    public void sweep() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        Entry oldest;
+        while ((oldest = order.peek()) != null && oldest.createdNanos() - deadline < 0) {
+            order.poll();
+            entries.remove(oldest.key(), oldest);
+        }
+    }
+
+    /**
+     * 清除以 keyPrefix 开头的记录（选举重置后原结果不再有效），写入顺序中的残留项在淘汰时跳过
+     */
+    public void clear(String keyPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
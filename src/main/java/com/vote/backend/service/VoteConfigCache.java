@@ -0,0 +1,126 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.event.CandidatesChangedEvent;
+import com.vote.backend.event.ElectionEpochChangedEvent;
+import com.vote.backend.repository.VoteConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 投票配置缓存
+ * 按选举保存配置快照，热路径（/status、/live-results、/submit）只做一次 map 读取，不访问数据库；
+ * 选举首次访问时加载，管理端修改配置或切换轮次后调用 {@link #publish} 原子替换快照。
+ * 另有低频定时刷新，使多实例部署时其他实例的变更也能生效：刷新发现批次或候选人版本变化时发布
+ * {@link ElectionEpochChangedEvent} / {@link CandidatesChangedEvent}，已投票索引与候选人目录据此失效重建。
+ */
+@Service
+@RequiredArgsConstructor
+public class VoteConfigCache implements ElectionScopedState {
+
+    // 快照在 JVM 内的估算大小
+    private static final long SNAPSHOT_BYTES = 128;
+
+    private final VoteConfigRepository voteConfigRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // electionId -> 配置快照
+    private final Map<Integer, VoteConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // 版本号全局递增，选举被淘汰后重新加载也不会与旧版本重复
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * 某选举当前的配置快照，选举不存在时抛出 {@link ElectionNotFoundException}
+     * 未加载时从数据库读取，与 {@link #refresh} 相同，读取期间已有更新的快照发布时丢弃读到的行。
+     */
+    public VoteConfigSnapshot get(int electionId) {
+        VoteConfigSnapshot snapshot = snapshots.get(electionId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long readStart = versions.get();
+        VoteConfig config = voteConfigRepository.findById(electionId)
+                .orElseThrow(() -> new ElectionNotFoundException(electionId));
+        synchronized (this) {
+            VoteConfigSnapshot current = snapshots.get(electionId);
+            if (current != null && current.getVersion() > readStart) {
+                return current;
+            }
+            return publish(config);
+        }
+    }
+
+    /**
+     * 配置保存后发布新快照
+     */
+    public synchronized VoteConfigSnapshot publish(VoteConfig config) {
+        VoteConfigSnapshot current = snapshots.get(config.getId());
+        VoteConfigSnapshot next = VoteConfigSnapshot.of(versions.incrementAndGet(), config);
+        if (!next.sameContent(current)) {
+            snapshots.put(config.getId(), next);
+            return next;
+        }
+        return current;
+    }
+
+    /**
+     * 从数据库重新加载已加载选举的配置（内容无变化时保持原版本）
+     * 读取在锁外进行，读取开始后本地已发布过新快照的选举丢弃读到的行，避免较旧的读取结果覆盖管理端刚发布的配置。
+     */
+    @Scheduled(fixedDelayString = "${vote.config.refresh-ms:5000}")
+    public void refresh() {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        long readStart = versions.get();
+        List<Object> events = new ArrayList<>();
+        for (VoteConfig config : voteConfigRepository.findAllById(snapshots.keySet())) {
+            VoteConfigSnapshot previous;
+            VoteConfigSnapshot next;
+            synchronized (this) {
+                previous = snapshots.get(config.getId());
+                // 读取期间被淘汰的选举不再放回，本地已发布新快照的选举保留新快照
+                if (previous == null || previous.getVersion() > readStart) {
+                    continue;
+                }
+                next = publish(config);
+            }
+            if (next == previous) {
+                continue;
+            }
+            if (next.getCurrentEpoch() != previous.getCurrentEpoch()) {
+                events.add(new ElectionEpochChangedEvent(config.getId()));
+            }
+            if (next.getCandidatesVersion() != previous.getCandidatesVersion()) {
+                events.add(new CandidatesChangedEvent(config.getId()));
+            }
+        }
+        // 在锁外发布，重建目录期间不阻塞配置发布
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    @Override
+    public Set<Integer> loadedElections() {
+        return snapshots.keySet();
+    }
+
+    @Override
+    public long estimateBytes(int electionId) {
+        return snapshots.containsKey(electionId) ? SNAPSHOT_BYTES : 0;
+    }
+
+    @Override
+    public void evict(int electionId) {
+        snapshots.remove(electionId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import lombok.Value;
+
+/**
+ * 投票配置的不可变快照
+ * 由 {@link VoteConfigCache} 在配置或轮次变更时整体替换，读取方拿到的始终是一份一致的配置与状态。
+ */
+@Value
+public class VoteConfigSnapshot {
+
+    long version;
+    int electionId;
+
+    int round1DirectorMaxApprove;
+    int round1ManagerMaxApprove;
+    int round2DirectorMaxApprove;
+    int round2ManagerMaxApprove;
+    int directorQualifyCount;
+    int managerQualifyCount;
+    int directorElectCount;
+    int managerElectCount;
+    VoteConfig.Status currentStatus;
+    int currentEpoch;
+    long candidatesVersion;
+
+    static VoteConfigSnapshot of(long version, VoteConfig config) {
+        return new VoteConfigSnapshot(
+                version,
+                config.getId(),
+                config.getRound1DirectorMaxApprove(),
+                config.getRound1ManagerMaxApprove(),
+                config.getRound2DirectorMaxApprove(),
+                config.getRound2ManagerMaxApprove(),
+                config.getDirectorQualifyCount(),
+                config.getManagerQualifyCount(),
+                config.getDirectorElectCount(),
+                config.getManagerElectCount(),
+                config.getCurrentStatus(),
+                config.getCurrentEpoch() != null ? config.getCurrentEpoch() : 1,
+                config.getCandidatesVersion() != null ? config.getCandidatesVersion() : 0);
+    }
+
+    /**
+     * 除版本号外内容是否相同
+     */
+    boolean sameContent(VoteConfigSnapshot other) {
+        return other != null
+                && electionId == other.electionId
+                && round1DirectorMaxApprove == other.round1DirectorMaxApprove
+                && round1ManagerMaxApprove == other.round1ManagerMaxApprove
+                && round2DirectorMaxApprove == other.round2DirectorMaxApprove
+                && round2ManagerMaxApprove == other.round2ManagerMaxApprove
+                && directorQualifyCount == other.directorQualifyCount
+                && managerQualifyCount == other.managerQualifyCount
+                && directorElectCount == other.directorElectCount
+                && managerElectCount == other.managerElectCount
+                && currentStatus == other.currentStatus
+                && currentEpoch == other.currentEpoch
+                && candidatesVersion == other.candidatesVersion;
+    }
+}
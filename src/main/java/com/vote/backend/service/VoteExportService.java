@@ -0,0 +1,180 @@
+package com.vote.backend.service;
+
+import com.vote.backend.dto.VoteResultDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.VoteRecord;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 投票结果与原始选票的 Excel 导出
+ * 使用 SXSSF 流式工作簿，内存中只保留最近的若干行，其余写入临时文件；
+ * 原始选票通过前向游标逐张读取，内存占用与选票数量无关。
+ */
+@Service
+@RequiredArgsConstructor
+public class VoteExportService {
+
+    // 内存中保留的行数，超出部分写入临时文件
+    private static final int ROW_ACCESS_WINDOW = 200;
+
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final VoteService voteService;
+    private final CandidateCatalog candidateCatalog;
+    private final BallotStore ballotStore;
+    private final BallotJournal ballotJournal;
+    private final VoteTallyService voteTallyService;
+
+    /**
+     * 导出选举某轮投票结果（按赞成票排序）
+     */
+    public void writeResults(int electionId, int round, OutputStream out) throws IOException {
+        List<VoteResultDTO> results = voteService.getVoteResults(electionId, round);
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        try {
+            Sheet sheet = workbook.createSheet("第" + round + "轮结果");
+            writeHeader(workbook, sheet, new String[]{"排名", "候选人", "类别", "赞成", "反对", "弃权"}, 3000);
+            int rowIndex = 1;
+            for (VoteResultDTO result : results) {
+                Row row = sheet.createRow(rowIndex);
+                row.createCell(0).setCellValue(rowIndex);
+                row.createCell(1).setCellValue(result.getCandidateName());
+                row.createCell(2).setCellValue(categoryLabel(result.getCategory()));
+                row.createCell(3).setCellValue(result.getApproveCount());
+                row.createCell(4).setCellValue(result.getOpposeCount());
+                row.createCell(5).setCellValue(result.getAbstainCount());
+                rowIndex++;
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 导出选举某轮原始选票：每位投票人一行，每位候选人一列
+     * 日志模式下先将尚未落库的选票写入数据库。超过单表行数上限时自动续写到新工作表。
+     */
+    public void writeBallots(int electionId, int round, OutputStream out) throws IOException {
+        writeBallots(electionId, round, out, JobProgress.NONE);
+    }
+
+    /**
+     * 导出某轮原始选票，每写入一张选票报告一次进度（总数为当前投票人数）
+     */
+    public void writeBallots(int electionId, int round, OutputStream out, JobProgress progress) throws IOException {
+        ballotJournal.flush();
+        long total = voteTallyService.getVoterCount(electionId, round);
+
+        List<Candidate> candidates = candidateCatalog.get(electionId).candidates(round);
+        String[] headers = new String[candidates.size() + 1];
+        Map<String, Integer> columns = new HashMap<>(candidates.size() * 2);
+        headers[0] = "投票人ID";
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate c = candidates.get(i);
+            headers[i + 1] = c.getName() + "（" + categoryLabel(c.getCategory().name()) + "）";
+            columns.put(c.getId(), i + 1);
+        }
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            BallotSheetWriter writer = new BallotSheetWriter(workbook, round, headers, columns);
+            long[] written = {0};
+            ballotStore.forEachBallot(electionId, round, ballot -> {
+                writer.write(ballot);
+                progress.update(++written[0], total);
+            });
+            if (writer.sheet == null) {
+                writer.newSheet();
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * 逐张写入选票，写满一张工作表后新建下一张
+     */
+    private static final class BallotSheetWriter {
+
+        private final SXSSFWorkbook workbook;
+        private final int round;
+        private final String[] headers;
+        private final Map<String, Integer> columns;
+        private SXSSFSheet sheet;
+        private int sheetCount;
+        private int rowIndex;
+
+        BallotSheetWriter(SXSSFWorkbook workbook, int round, String[] headers, Map<String, Integer> columns) {
+            this.workbook = workbook;
+            this.round = round;
+            this.headers = headers;
+            this.columns = columns;
+        }
+
+        void write(Ballot ballot) {
+            if (sheet == null || rowIndex >= MAX_ROWS_PER_SHEET) {
+                newSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            row.createCell(0).setCellValue(ballot.voterId());
+            ballot.votes().forEach((candidateId, voteType) -> {
+                Integer column = columns.get(candidateId);
+                if (column != null) {
+                    row.createCell(column).setCellValue(voteTypeLabel(voteType));
+                }
+            });
+        }
+
+        void newSheet() {
+            sheetCount++;
+            sheet = workbook.createSheet("第" + round + "轮选票" + (sheetCount > 1 ? "-" + sheetCount : ""));
+            writeHeader(workbook, sheet, headers, 10000);
+            rowIndex = 1;
+        }
+    }
+
+    private static void writeHeader(Workbook workbook, Sheet sheet, String[] headers, int firstColumnWidth) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(headerStyle);
+            sheet.setColumnWidth(i, i == 0 ? firstColumnWidth : 5000);
+        }
+    }
+
+    private static String categoryLabel(String category) {
+        return "manager".equals(category) ? "负责人" : "常务理事";
+    }
+
+    private static String voteTypeLabel(VoteRecord.VoteType voteType) {
+        return switch (voteType) {
+            case approve -> "赞成";
+            case oppose -> "反对";
+            case abstain -> "弃权";
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.vote.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 投票链路指标（Micrometer，经 /actuator/prometheus 暴露）
+ * 提交耗时与各阶段耗时、选票接受/拒绝计数（按原因）、大屏结果构建耗时、各轮投票人数、已加载选举数、准入控制与幂等缓存状态。
+ * 仓库方法耗时（spring.data.repository.invocations）与连接池指标（hikaricp.*）由 Spring Boot 自动采集。
+ * 所有计量器在启动时注册，热路径上只做计数与计时，不再按标签查找。
+ */
+@Service
+public class VoteMetrics {
+
+    /**
+     * 提交阶段
+     */
+    public enum Stage {
+        admission, config, voted_check, validate, persist
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<BallotValidator.Rejection, Counter> rejectedCounters = new EnumMap<>(BallotValidator.Rejection.class);
+    private final Timer acceptedTimer;
+    private final Timer rejectedTimer;
+    private final Counter acceptedCounter;
+    private final Counter failedCounter;
+    private final Counter pendingCounter;
+    private final Timer liveResultsTimer;
+
+    public VoteMetrics(MeterRegistry registry, VoteTallyService voteTallyService,
+                       SubmitAdmissionController submitAdmissionController,
+                       SubmitIdempotencyCache submitIdempotencyCache,
+                       ElectionHotState electionHotState) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("vote.submit.stage")
+                    .description("投票提交各阶段耗时")
+                    .tag("stage", stage.name())
+                    .register(registry));
+        }
+        acceptedTimer = Timer.builder("vote.submit").description("投票提交耗时")
+                .tag("outcome", "accepted").register(registry);
+        rejectedTimer = Timer.builder("vote.submit").description("投票提交耗时")
+                .tag("outcome", "rejected").register(registry);
+
+        acceptedCounter = Counter.builder("vote.ballots").description("选票处理结果")
+                .tag("outcome", "accepted").tag("reason", "none").register(registry);
+        for (BallotValidator.Rejection rejection : BallotValidator.Rejection.values()) {
+            rejectedCounters.put(rejection, Counter.builder("vote.ballots").description("选票处理结果")
+                    .tag("outcome", "rejected").tag("reason", rejection.name()).register(registry));
+        }
+        failedCounter = Counter.builder("vote.ballots").description("选票处理结果")
+                .tag("outcome", "failed").tag("reason", "error").register(registry);
+        pendingCounter = Counter.builder("vote.ballots").description("选票处理结果")
+                .tag("outcome", "pending").tag("reason", "timeout").register(registry);
+
+        liveResultsTimer = Timer.builder("vote.live_results.build")
+                .description("大屏实时结果构建耗时")
+                .register(registry);
+
+        for (int round = 1; round <= 2; round++) {
+            int r = round;
+            Gauge.builder("vote.turnout", voteTallyService, tally -> tally.getTotalVoterCount(r))
+                    .description("本轮已投票人数（已加载选举合计）")
+                    .tag("round", String.valueOf(round))
+                    .register(registry);
+        }
+
+        Map.of("limit", "vote.admission.limit", "inFlight", "vote.admission.in_flight", "queueDepth", "vote.admission.queue_depth")
+                .forEach((key, name) -> Gauge.builder(name, submitAdmissionController,
+                                admission -> ((Number) admission.getMetrics().get(key)).doubleValue())
+                        .description("投票提交准入控制状态")
+                        .register(registry));
+
+        Gauge.builder("vote.elections.loaded", electionHotState, ElectionHotState::loadedCount)
+                .description("内存中已加载的选举数")
+                .register(registry);
+
+        Gauge.builder("vote.idempotency.entries", submitIdempotencyCache, SubmitIdempotencyCache::size)
+                .description("幂等缓存中的已完成提交数")
+                .register(registry);
+    }
+
+    /**
+     * 记录从 startNanos 到现在的阶段耗时，返回当前时间供下一阶段使用
+     */
+    public long stage(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * 选票被接受，记录提交总耗时
+     */
+    public void accepted(long startNanos) {
+        acceptedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        acceptedCounter.increment();
+    }
+
+    /**
+     * 选票被拒绝，按原因计数
+     */
+    public void rejected(BallotValidator.Rejection rejection, long startNanos) {
+        rejectedTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        rejectedCounters.get(rejection).increment();
+    }
+
+    /**
+     * 提交过程中出现未预期的异常
+     */
+    public void failed() {
+        failedCounter.increment();
+    }
+
+    /**
+     * 选票已开始写库但等待超时，结果未知
+     */
+    public void pending() {
+        pendingCounter.increment();
+    }
+
+    /**
+     * 计时构建大屏实时结果
+     */
+    public <T> T timeLiveResults(Supplier<T> builder) {
+        return liveResultsTimer.record(builder);
+    }
+}
@@ -3,135 +3,166 @@ package com.vote.backend.service;
 import com.vote.backend.dto.VoteResultDTO;
 import com.vote.backend.dto.VoteSubmitDTO;
 import com.vote.backend.entity.*;
+import com.vote.backend.event.BallotCommittedEvent;
 import com.vote.backend.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class VoteService {
 
-    private final CandidateRepository candidateRepository;
-    private final VoteConfigRepository voteConfigRepository;
-    private final VoteRecordRepository voteRecordRepository;
+    private final CandidateCatalog candidateCatalog;
+    private final BallotValidator ballotValidator;
+    private final VoteConfigCache voteConfigCache;
+    private final VoteTallyService voteTallyService;
+    private final VoterIndexService voterIndexService;
+    private final BallotStore ballotStore;
+    private final BallotJournal ballotJournal;
+    private final BallotGroupCommitter ballotGroupCommitter;
+    private final VoteMetrics voteMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ElectionHotState electionHotState;
 
     /**
-     * 获取当前投票配置和状态
+     * 获取选举当前投票配置和状态（内存快照）
      */
-    public VoteConfig getVoteConfig() {
-        return voteConfigRepository.getConfig();
+    public VoteConfigSnapshot getVoteConfig(int electionId) {
+        electionHotState.touch(electionId);
+        return voteConfigCache.get(electionId);
     }
 
     /**
-     * 获取当前轮次的候选人列表
+     * 获取选举当前轮次的候选人列表（第二轮只返回晋级的候选人）
      */
-    public List<Candidate> getCandidates(Integer round) {
-        if (round == 1) {
-            return candidateRepository.findAll();
-        } else {
-            // 第二轮只返回晋级的候选人
-            return candidateRepository.findByIsRound2QualifiedTrue();
-        }
+    public List<Candidate> getCandidates(int electionId, Integer round) {
+        electionHotState.touch(electionId);
+        return candidateCatalog.get(electionId).candidates(round);
+    }
+
+    /**
+     * 候选人目录版本（候选人或晋级名单变化时递增）
+     */
+    public long getCandidatesVersion(int electionId) {
+        return candidateCatalog.get(electionId).getVersion();
     }
 
     /**
-     * 检查用户是否已在该轮投票
+     * 检查用户是否已在该轮投票（内存索引）
      */
-    public boolean hasVoted(String voterId, Integer round) {
-        return voteRecordRepository.existsByVoterIdAndRound(voterId, round.byteValue());
+    public boolean hasVoted(int electionId, String voterId, Integer round) {
+        electionHotState.touch(electionId);
+        return voterIndexService.hasVoted(electionId, voterId, round);
     }
 
     /**
      * 提交投票
+     * 校验在事务外完成；直接模式下同步写库，组提交模式下与并发选票合并为一个事务写库，
+     * 日志模式下写入本地日志即确认，由后台异步落库。
      */
-    @Transactional
-    public void submitVotes(VoteSubmitDTO dto) {
-        VoteConfig config = getVoteConfig();
+    public void submitVotes(int electionId, VoteSubmitDTO dto) {
+        long start = System.nanoTime();
+        try {
+            doSubmitVotes(electionId, dto, start);
+            voteMetrics.accepted(start);
+        } catch (BallotRejectedException e) {
+            voteMetrics.rejected(e.getRejection(), start);
+            throw e;
+        } catch (BallotPendingException e) {
+            voteMetrics.pending();
+            throw e;
+        } catch (RuntimeException e) {
+            voteMetrics.failed();
+            throw e;
+        }
+    }
+
+    // 各阶段耗时分别计入 vote.submit.stage
+    private void doSubmitVotes(int electionId, VoteSubmitDTO dto, long start) {
+        VoteConfigSnapshot config = getVoteConfig(electionId);
+        // 计数须在选票提交前加载，否则加载结果与提交事件可能重复计入
+        voteTallyService.ensureLoaded(electionId);
+        long t = voteMetrics.stage(VoteMetrics.Stage.config, start);
         
         // 检查投票是否开放
         if (dto.getRound() == 1 && config.getCurrentStatus() != VoteConfig.Status.round1_voting) {
-            throw new RuntimeException("第一轮投票未开放");
+            throw new BallotRejectedException(BallotValidator.Rejection.round_closed, "第一轮投票未开放");
         }
         if (dto.getRound() == 2 && config.getCurrentStatus() != VoteConfig.Status.round2_voting) {
-            throw new RuntimeException("第二轮投票未开放");
+            throw new BallotRejectedException(BallotValidator.Rejection.round_closed, "第二轮投票未开放");
         }
 
         // 检查是否已投票
-        if (hasVoted(dto.getVoterId(), dto.getRound())) {
-            throw new RuntimeException("您已经在本轮投过票了");
+        if (voterIndexService.hasVoted(electionId, dto.getVoterId(), dto.getRound())) {
+            throw new BallotRejectedException(BallotValidator.Rejection.already_voted, "您已经在本轮投过票了");
         }
+        t = voteMetrics.stage(VoteMetrics.Stage.voted_check, t);
 
-        // 获取所有候选人用于分类
-        Map<String, Candidate> candidateMap = new HashMap<>();
-        candidateRepository.findAll().forEach(c -> candidateMap.put(c.getId(), c));
-
-        // 按类别统计赞成票
-        long directorApproveCount = 0;
-        long managerApproveCount = 0;
-        for (Map.Entry<String, String> entry : dto.getVotes().entrySet()) {
-            if ("approve".equals(entry.getValue())) {
-                Candidate c = candidateMap.get(entry.getKey());
-                if (c != null) {
-                    if (c.getCategory() == Candidate.Category.director) {
-                        directorApproveCount++;
-                    } else if (c.getCategory() == Candidate.Category.manager) {
-                        managerApproveCount++;
-                    }
-                }
-            }
+        // 校验选票内容
+        BallotValidator.Result result = ballotValidator.validate(dto, config, candidateCatalog.get(electionId));
+        if (!result.isAccepted()) {
+            throw new BallotRejectedException(result.rejection(), result.message());
         }
+        t = voteMetrics.stage(VoteMetrics.Stage.validate, t);
 
-        // 检查各类别赞成票数量限制
-        int directorMaxApprove, managerMaxApprove;
-        if (dto.getRound() == 1) {
-            directorMaxApprove = config.getRound1DirectorMaxApprove();
-            managerMaxApprove = config.getRound1ManagerMaxApprove();
-        } else {
-            directorMaxApprove = config.getRound2DirectorMaxApprove();
-            managerMaxApprove = config.getRound2ManagerMaxApprove();
+        Ballot ballot = result.ballot();
+        if (ballotGroupCommitter.isEnabled()) {
+            ballotGroupCommitter.submit(ballot);
+            voteMetrics.stage(VoteMetrics.Stage.persist, t);
+            return;
+        }
+        if (!ballotJournal.isEnabled()) {
+            // 保存投票记录（并发重复提交由唯一约束拦截）
+            try {
+                ballotStore.save(ballot);
+            } catch (DataIntegrityViolationException e) {
+                throw new BallotRejectedException(BallotValidator.Rejection.already_voted, "您已经在本轮投过票了");
+            }
+            voteMetrics.stage(VoteMetrics.Stage.persist, t);
+            return;
         }
 
-        if (directorApproveCount > directorMaxApprove) {
-            throw new RuntimeException("常务理事赞成票数量超过限制（最多" + directorMaxApprove + "票，当前" + directorApproveCount + "票）");
+        // 日志模式：先占用投票资格，防止同一投票人并发重复提交
+        if (!voterIndexService.tryMarkVoted(electionId, dto.getVoterId(), dto.getRound())) {
+            throw new BallotRejectedException(BallotValidator.Rejection.already_voted, "您已经在本轮投过票了");
         }
-        if (managerApproveCount > managerMaxApprove) {
-            throw new RuntimeException("负责人赞成票数量超过限制（最多" + managerMaxApprove + "票，当前" + managerApproveCount + "票）");
+        // 校验后投票已被重置：新批次的索引不能保留这次登记
+        if (voteConfigCache.get(electionId).getCurrentEpoch() != ballot.epoch()) {
+            voterIndexService.unmark(electionId, dto.getVoterId(), dto.getRound());
+            throw new BallotRejectedException(BallotValidator.Rejection.round_closed, "投票已重置，请刷新后重新投票");
         }
-
-        // 保存投票记录
-        List<VoteRecord> records = new ArrayList<>();
-        for (Map.Entry<String, String> entry : dto.getVotes().entrySet()) {
-            VoteRecord record = new VoteRecord();
-            record.setVoterId(dto.getVoterId());
-            record.setCandidateId(entry.getKey());
-            record.setRound(dto.getRound().byteValue());
-            record.setVoteType(VoteRecord.VoteType.valueOf(entry.getValue()));
-            records.add(record);
+        try {
+            ballotJournal.append(ballot);
+        } catch (IOException e) {
+            voterIndexService.unmark(electionId, dto.getVoterId(), dto.getRound());
+            throw new BallotRejectedException(BallotValidator.Rejection.storage_failure, "投票保存失败，请重试");
         }
-        voteRecordRepository.saveAll(records);
+        eventPublisher.publishEvent(new BallotCommittedEvent(electionId, ballot.epoch(), ballot.voterId(), ballot.round(), ballot.votes()));
+        voteMetrics.stage(VoteMetrics.Stage.persist, t);
     }
 
     /**
-     * 获取投票结果
+     * 获取选举某轮投票结果
      */
-    public List<VoteResultDTO> getVoteResults(Integer round) {
-        List<Candidate> candidates = (round == 1) 
-            ? candidateRepository.findAll() 
-            : candidateRepository.findByIsRound2QualifiedTrue();
+    public List<VoteResultDTO> getVoteResults(int electionId, Integer round) {
+        electionHotState.touch(electionId);
+        List<Candidate> candidates = candidateCatalog.get(electionId).candidates(round);
         
-        Byte roundByte = round.byteValue();
         List<VoteResultDTO> results = new ArrayList<>();
         for (Candidate c : candidates) {
+            VoteTallyService.Counts counts = voteTallyService.getCounts(electionId, round, c.getId());
             VoteResultDTO dto = new VoteResultDTO();
             dto.setCandidateId(c.getId());
             dto.setCandidateName(c.getName());
             dto.setCategory(c.getCategory().name());
-            dto.setApproveCount(voteRecordRepository.countApproveVotes(c.getId(), roundByte));
-            dto.setOpposeCount(voteRecordRepository.countOpposeVotes(c.getId(), roundByte));
-            dto.setAbstainCount(voteRecordRepository.countAbstainVotes(c.getId(), roundByte));
+            dto.setApproveCount(counts.approve());
+            dto.setOpposeCount(counts.oppose());
+            dto.setAbstainCount(counts.abstain());
             results.add(dto);
         }
         
@@ -143,8 +174,12 @@ public class VoteService {
     /**
      * 获取实时投票结果（供大屏展示）
      */
-    public Map<String, Object> getLiveResults() {
-        VoteConfig config = getVoteConfig();
+    public Map<String, Object> getLiveResults(int electionId) {
+        return voteMetrics.timeLiveResults(() -> buildLiveResults(electionId));
+    }
+
+    private Map<String, Object> buildLiveResults(int electionId) {
+        VoteConfigSnapshot config = getVoteConfig(electionId);
         Map<String, Object> result = new HashMap<>();
         
         // 当前状态
@@ -169,43 +204,28 @@ public class VoteService {
         result.put("directorElectCount", config.getDirectorElectCount());
         result.put("managerElectCount", config.getManagerElectCount());
         
-        // 获取所有候选人
-        List<Candidate> allCandidates = candidateRepository.findAll();
+        // 获取本轮候选人（候选人目录快照）
+        List<Candidate> allCandidates = candidateCatalog.get(electionId).candidates(currentRound == 2 ? 2 : 1);
         
-        // 统计已投票人数
+        // 统计已投票人数（内存计票）
         if (currentRound > 0) {
-            long voterCount = voteRecordRepository.countDistinctVotersByRound((byte) currentRound);
+            long voterCount = voteTallyService.getVoterCount(electionId, currentRound);
             result.put("voterCount", voterCount);
         } else {
             result.put("voterCount", 0);
         }
         
-        // 分类别获取投票结果
+        // 分类别获取投票结果（内存计票）
         if (currentRound > 0) {
-            Byte roundByte = (byte) currentRound;
-            List<Object[]> voteStats = voteRecordRepository.countAllVotesByRound(roundByte);
-            
-            // 构建 candidateId -> approveCount 映射
-            Map<String, Long> approveMap = new HashMap<>();
-            for (Object[] row : voteStats) {
-                String candidateId = (String) row[0];
-                String voteType = row[1].toString();
-                Long count = (Long) row[2];
-                if ("approve".equals(voteType)) {
-                    approveMap.put(candidateId, count);
-                }
-            }
-            
             // 常务理事结果
             List<Map<String, Object>> directorResults = allCandidates.stream()
                     .filter(c -> c.getCategory() == Candidate.Category.director)
-                    .filter(c -> currentRound == 1 || c.getIsRound2Qualified())
                     .map(c -> {
                         Map<String, Object> m = new HashMap<>();
                         m.put("id", c.getId());
                         m.put("name", c.getName());
                         m.put("title", c.getTitle());
-                        m.put("approveCount", approveMap.getOrDefault(c.getId(), 0L));
+                        m.put("approveCount", voteTallyService.getApproveCount(electionId, currentRound, c.getId()));
                         m.put("isQualified", c.getIsRound2Qualified());
                         return m;
                     })
@@ -215,13 +235,12 @@ public class VoteService {
             // 负责人结果
             List<Map<String, Object>> managerResults = allCandidates.stream()
                     .filter(c -> c.getCategory() == Candidate.Category.manager)
-                    .filter(c -> currentRound == 1 || c.getIsRound2Qualified())
                     .map(c -> {
                         Map<String, Object> m = new HashMap<>();
                         m.put("id", c.getId());
                         m.put("name", c.getName());
                         m.put("title", c.getTitle());
-                        m.put("approveCount", approveMap.getOrDefault(c.getId(), 0L));
+                        m.put("approveCount", voteTallyService.getApproveCount(electionId, currentRound, c.getId()));
                         m.put("isQualified", c.getIsRound2Qualified());
                         return m;
                     })
@@ -0,0 +1,373 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.repository.VoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 内存计票引擎
+ * 按选举维护计数：选举首次访问时从数据库重建当前批次，之后在每张选票事务提交后增量更新，
+ * 实时结果与结果查询直接读内存计数，不再执行 GROUP BY 统计。
+ * 加载在 map 锁外进行，同一选举的并发访问等待同一次加载；加载期间收到的提交事件先缓存，
+ * 加载完成后补计其中不在加载快照内的投票人（快照在同一个事务中读取计数与投票人），不会漏计也不会重复计入。
+ * 未加载的选举不处理提交事件，下次加载时从数据库读到完整计数；不属于已加载批次的选票（重置前通过校验、重置后才提交）也不计入。
+ * 共享计数模式（vote.tally.mode=shared，多实例部署）下不处理提交事件，计数从 candidate_tally 汇总加载，
+ * 并定期刷新已加载的选举，各实例看到的都是数据库中已提交选票的精确计数。
+ */
+@Slf4j
+@Service
+@DependsOn("ballotJournal") // 先重放选票日志，再从数据库重建
+@RequiredArgsConstructor
+public class VoteTallyService implements ElectionScopedState {
+
+    private static final int VOTE_TYPES = VoteRecord.VoteType.values().length;
+
+    private final VoteRecordRepository voteRecordRepository;
+    private final PackedBallotStore packedBallotStore;
+    private final CandidateTallyStore candidateTallyStore;
+    private final VoteConfigCache voteConfigCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // electionId -> 该选举的计数
+    private final Map<Integer, ElectionTally> elections = new ConcurrentHashMap<>();
+
+    // electionId -> 进行中的加载
+    private final Map<Integer, Loading> loading = new ConcurrentHashMap<>();
+
+    // 版本号全局递增，选举被淘汰后重新加载也不会与旧版本重复
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * 候选人某轮的计票快照
+     */
+    public record Counts(long approve, long oppose, long abstain) {
+        public static final Counts EMPTY = new Counts(0, 0, 0);
+    }
+
+    private static final class RoundTally {
+        private final Map<String, AtomicLongArray> candidates = new ConcurrentHashMap<>();
+        private final AtomicLong voterCount = new AtomicLong();
+
+        AtomicLongArray counters(String candidateId) {
+            return candidates.computeIfAbsent(candidateId, k -> new AtomicLongArray(VOTE_TYPES));
+        }
+    }
+
+    private static final class ElectionTally {
+        // round -> 该轮计数
+        private final Map<Integer, RoundTally> rounds = new ConcurrentHashMap<>();
+        // 加载的批次
+        private int epoch;
+        // 共享计数模式下所有计数之和（批次内计数只增不减，和不变即计数不变）
+        private long sharedTotal;
+        // 每次计数变化更新，供推送等场景判断是否有更新
+        private volatile long version;
+
+        RoundTally round(int round) {
+            return rounds.computeIfAbsent(round, k -> new RoundTally());
+        }
+    }
+
+    // 一次加载：等待者共享结果；done 之前的提交事件缓存在 buffered 中，stale 表示加载期间选举被重置或淘汰
+    private static final class Loading {
+        private final CompletableFuture<ElectionTally> result = new CompletableFuture<>();
+        private final List<BallotCommittedEvent> buffered = new ArrayList<>();
+        private boolean done;
+        private boolean stale;
+
+        synchronized boolean buffer(BallotCommittedEvent event) {
+            if (done) {
+                return false;
+            }
+            buffered.add(event);
+            return true;
+        }
+    }
+
+    // 加载结果与快照中各轮已计入的投票人（用于补计缓存的事件时去重）
+    private record Loaded(ElectionTally tally, Map<Integer, Set<String>> voters) {
+    }
+
+    /**
+     * 确保选举的计数已加载（提交选票前调用，避免加载与提交事件交错重复计数）
+     */
+    public void ensureLoaded(int electionId) {
+        tally(electionId);
+    }
+
+    private ElectionTally tally(int electionId) {
+        ElectionTally election = elections.get(electionId);
+        if (election != null) {
+            return election;
+        }
+        Loading mine = new Loading();
+        Loading existing = loading.putIfAbsent(electionId, mine);
+        if (existing != null) {
+            return existing.result.join();
+        }
+        try {
+            election = elections.get(electionId);
+            if (election == null) {
+                election = install(electionId, mine, load(electionId));
+            }
+            mine.result.complete(election);
+            return election;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(electionId, mine);
+        }
+    }
+
+    // 发布加载结果并补计加载期间缓存的事件；加载期间选举被重置时不发布
+    private ElectionTally install(int electionId, Loading mine, Loaded loaded) {
+        ElectionTally election = loaded.tally();
+        synchronized (mine) {
+            mine.done = true;
+            if (mine.stale) {
+                return election;
+            }
+            elections.put(electionId, election);
+            for (BallotCommittedEvent event : mine.buffered) {
+                Set<String> counted = loaded.voters().get(event.round());
+                if (event.epoch() == election.epoch && (counted == null || !counted.contains(event.voterId()))) {
+                    add(election.round(event.round()), event.votes());
+                }
+            }
+            if (!mine.buffered.isEmpty()) {
+                election.version = versions.incrementAndGet();
+            }
+        }
+        return election;
+    }
+
+    /**
+     * 从数据库重建选举当前批次的计数
+     * 计数与投票人在同一个事务中读取（可重复读下为同一快照），据此判断缓存的提交事件是否已包含在计数中。
+     */
+    private Loaded load(int electionId) {
+        int epoch = voteConfigCache.get(electionId).getCurrentEpoch();
+        if (candidateTallyStore.isEnabled()) {
+            return new Loaded(loadShared(electionId, epoch), Map.of());
+        }
+        return transactionTemplate.execute(status -> {
+            ElectionTally election = new ElectionTally();
+            election.epoch = epoch;
+            Map<Integer, Set<String>> voters = new HashMap<>();
+            for (byte round = 1; round <= 2; round++) {
+                RoundTally tally = election.round(round);
+                Set<String> counted = new HashSet<>();
+                voters.put((int) round, counted);
+                if (packedBallotStore.isEnabled()) {
+                    // 压缩存储：逐张解码选票累加
+                    packedBallotStore.forEachBallot(electionId, epoch, round, ballot -> {
+                        add(tally, ballot.votes());
+                        counted.add(ballot.voterId());
+                    });
+                    continue;
+                }
+                counted.addAll(voteRecordRepository.findDistinctVoterIdsByRound(electionId, epoch, round));
+                for (Object[] row : voteRecordRepository.countAllVotesByRound(electionId, epoch, round)) {
+                    String candidateId = (String) row[0];
+                    VoteRecord.VoteType voteType = VoteRecord.VoteType.valueOf(row[1].toString());
+                    tally.counters(candidateId).set(voteType.ordinal(), (Long) row[2]);
+                }
+                tally.voterCount.set(counted.size());
+            }
+            election.version = versions.incrementAndGet();
+            return new Loaded(election, voters);
+        });
+    }
+
+    /**
+     * 从共享计数表汇总选举指定批次的计数
+     */
+    private ElectionTally loadShared(int electionId, int epoch) {
+        ElectionTally election = new ElectionTally();
+        election.epoch = epoch;
+        election.round(1);
+        election.round(2);
+        for (CandidateTallyStore.Count count : candidateTallyStore.sum(electionId, epoch)) {
+            RoundTally tally = election.round(count.round());
+            if (count.voteType() == null) {
+                tally.voterCount.set(count.count());
+            } else {
+                tally.counters(count.candidateId()).set(count.voteType().ordinal(), count.count());
+            }
+            election.sharedTotal += count.count();
+        }
+        election.version = versions.incrementAndGet();
+        return election;
+    }
+
+    /**
+     * 共享计数模式下定期从计数表刷新已加载的选举（包括其他实例写入的选票与重置后的新批次），计数变化时才更新版本号
+     */
+    @Scheduled(fixedDelayString = "${vote.tally.refresh-ms:500}")
+    public void refreshShared() {
+        if (!candidateTallyStore.isEnabled()) {
+            return;
+        }
+        for (Integer electionId : elections.keySet()) {
+            ElectionTally fresh;
+            try {
+                fresh = loadShared(electionId, voteConfigCache.get(electionId).getCurrentEpoch());
+            } catch (RuntimeException e) {
+                log.warn("刷新选举 {} 的共享计数失败: {}", electionId, e.getMessage());
+                continue;
+            }
+            elections.computeIfPresent(electionId, (id, current) -> changed(current, fresh) ? fresh : current);
+        }
+    }
+
+    /**
+     * 共享计数模式下立即从计数表重新汇总选举的计数，不等待定期刷新（结束一轮排名、归档投票人数前调用）；
+     * 本地计数模式下计数随提交事件同步更新，无需重新加载
+     */
+    public void reload(int electionId) {
+        if (!candidateTallyStore.isEnabled()) {
+            return;
+        }
+        ElectionTally fresh = loadShared(electionId, voteConfigCache.get(electionId).getCurrentEpoch());
+        elections.compute(electionId, (id, current) -> current == null || changed(current, fresh) ? fresh : current);
+    }
+
+    private static boolean changed(ElectionTally current, ElectionTally fresh) {
+        return current.epoch != fresh.epoch || current.sharedTotal != fresh.sharedTotal;
+    }
+
+    /**
+     * 选票事务提交后累加计数（共享计数模式下由定期刷新更新）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBallotCommitted(BallotCommittedEvent event) {
+        if (candidateTallyStore.isEnabled()) {
+            return;
+        }
+        Loading pending = loading.get(event.electionId());
+        if (pending != null && pending.buffer(event)) {
+            return;
+        }
+        ElectionTally election = elections.get(event.electionId());
+        if (election == null || election.epoch != event.epoch()) {
+            return;
+        }
+        add(election.round(event.round()), event.votes());
+        election.version = versions.incrementAndGet();
+    }
+
+    private static void add(RoundTally tally, Map<String, VoteRecord.VoteType> votes) {
+        votes.forEach((candidateId, voteType) -> tally.counters(candidateId).incrementAndGet(voteType.ordinal()));
+        tally.voterCount.incrementAndGet();
+    }
+
+    /**
+     * 清空选举的计数（重置投票时调用，下次访问时按新批次重新加载）
+     */
+    public void reset(int electionId) {
+        discard(electionId);
+    }
+
+    // 移除选举的计数，进行中的加载不再发布结果
+    private void discard(int electionId) {
+        Loading pending = loading.get(electionId);
+        if (pending != null) {
+            synchronized (pending) {
+                pending.stale = true;
+            }
+        }
+        elections.remove(electionId);
+    }
+
+    /**
+     * 获取候选人在某轮的计票
+     */
+    public Counts getCounts(int electionId, int round, String candidateId) {
+        RoundTally tally = tally(electionId).rounds.get(round);
+        AtomicLongArray counters = tally == null ? null : tally.candidates.get(candidateId);
+        if (counters == null) {
+            return Counts.EMPTY;
+        }
+        return new Counts(
+                counters.get(VoteRecord.VoteType.approve.ordinal()),
+                counters.get(VoteRecord.VoteType.oppose.ordinal()),
+                counters.get(VoteRecord.VoteType.abstain.ordinal()));
+    }
+
+    /**
+     * 获取候选人在某轮的赞成票数
+     */
+    public long getApproveCount(int electionId, int round, String candidateId) {
+        return getCounts(electionId, round, candidateId).approve();
+    }
+
+    /**
+     * 获取某轮已投票人数
+     */
+    public long getVoterCount(int electionId, int round) {
+        RoundTally tally = tally(electionId).rounds.get(round);
+        return tally == null ? 0 : tally.voterCount.get();
+    }
+
+    /**
+     * 已加载选举某轮的投票人数合计（指标用，不触发加载）
+     */
+    public long getTotalVoterCount(int round) {
+        long total = 0;
+        for (ElectionTally election : elections.values()) {
+            RoundTally tally = election.rounds.get(round);
+            total += tally == null ? 0 : tally.voterCount.get();
+        }
+        return total;
+    }
+
+    /**
+     * 选举当前计数版本号
+     */
+    public long getVersion(int electionId) {
+        return tally(electionId).version;
+    }
+
+    @Override
+    public Set<Integer> loadedElections() {
+        return elections.keySet();
+    }
+
+    @Override
+    public long estimateBytes(int electionId) {
+        ElectionTally election = elections.get(electionId);
+        if (election == null) {
+            return 0;
+        }
+        // 每位候选人一个计数数组与 map 条目，约 120 字节
+        long bytes = 0;
+        for (RoundTally tally : election.rounds.values()) {
+            bytes += 120L * tally.candidates.size();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void evict(int electionId) {
+        discard(electionId);
+    }
+}
@@ -0,0 +1,141 @@
+package com.vote.backend.service;
+
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.event.ElectionEpochChangedEvent;
+import com.vote.backend.repository.VoteRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已投票人内存索引
+ * 按选举、轮次维护已投票的投票人ID集合，选举首次访问时及开启轮次时从数据库预加载，
+ * 选票事务提交后加入。/check 与提交前的重复校验直接查内存，
+ * 数据库唯一约束仍是最终保障。
+ */
+@Service
+@DependsOn("ballotJournal") // 先重放选票日志，再从数据库加载
+@RequiredArgsConstructor
+public class VoterIndexService implements ElectionScopedState {
+
+    private final VoteRecordRepository voteRecordRepository;
+    private final PackedBallotStore packedBallotStore;
+    private final VoteConfigCache voteConfigCache;
+
+    // electionId -> round -> 已投票的投票人ID
+    private final Map<Integer, Map<Integer, Set<String>>> elections = new ConcurrentHashMap<>();
+
+    /**
+     * 从数据库加载选举当前批次某轮已投票的投票人（与内存中已有数据合并）
+     */
+    public void preload(int electionId, int round) {
+        Map<Integer, Set<String>> rounds = elections.get(electionId);
+        if (rounds == null) {
+            // 首次加载时已包含两轮
+            votersOf(electionId);
+        } else {
+            load(rounds, electionId, round);
+        }
+    }
+
+    private Map<Integer, Set<String>> votersOf(int electionId) {
+        return elections.computeIfAbsent(electionId, id -> {
+            Map<Integer, Set<String>> rounds = new ConcurrentHashMap<>();
+            load(rounds, id, 1);
+            load(rounds, id, 2);
+            return rounds;
+        });
+    }
+
+    private void load(Map<Integer, Set<String>> rounds, int electionId, int round) {
+        votersOf(rounds, round).addAll(packedBallotStore.isEnabled()
+                ? packedBallotStore.findVoterIds(electionId, round)
+                : voteRecordRepository.findDistinctVoterIdsByRound(electionId,
+                        voteConfigCache.get(electionId).getCurrentEpoch(), (byte) round));
+    }
+
+    private static Set<String> votersOf(Map<Integer, Set<String>> rounds, int round) {
+        return rounds.computeIfAbsent(round, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * 选票事务提交后登记投票人（重置后才提交的旧批次选票不登记到新批次）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBallotCommitted(BallotCommittedEvent event) {
+        Map<Integer, Set<String>> rounds = elections.get(event.electionId());
+        if (rounds != null && event.epoch() == voteConfigCache.get(event.electionId()).getCurrentEpoch()) {
+            votersOf(rounds, event.round()).add(event.voterId());
+        }
+    }
+
+    /**
+     * 其他实例重置投票后清空索引，下次访问时按新批次重新加载
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEpochChanged(ElectionEpochChangedEvent event) {
+        reset(event.electionId());
+    }
+
+    /**
+     * 登记投票人，已登记过时返回 false
+     */
+    public boolean tryMarkVoted(int electionId, String voterId, int round) {
+        return votersOf(votersOf(electionId), round).add(voterId);
+    }
+
+    /**
+     * 撤销登记（选票未能持久化时调用）
+     */
+    public void unmark(int electionId, String voterId, int round) {
+        Map<Integer, Set<String>> rounds = elections.get(electionId);
+        Set<String> set = rounds == null ? null : rounds.get(round);
+        if (set != null) {
+            set.remove(voterId);
+        }
+    }
+
+    /**
+     * 检查投票人是否已在该轮投票
+     */
+    public boolean hasVoted(int electionId, String voterId, int round) {
+        Set<String> set = votersOf(electionId).get(round);
+        return set != null && set.contains(voterId);
+    }
+
+    /**
+     * 清空选举的索引（重置投票时调用，下次访问时按新批次重新加载）
+     */
+    public void reset(int electionId) {
+        elections.remove(electionId);
+    }
+
+    @Override
+    public Set<Integer> loadedElections() {
+        return elections.keySet();
+    }
+
+    @Override
+    public long estimateBytes(int electionId) {
+        Map<Integer, Set<String>> rounds = elections.get(electionId);
+        if (rounds == null) {
+            return 0;
+        }
+        // 集合条目与投票人ID字符串约 100 字节
+        long bytes = 0;
+        for (Set<String> set : rounds.values()) {
+            bytes += 100L * set.size();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void evict(int electionId) {
+        elections.remove(electionId);
+    }
+}
@@ -0,0 +1,16 @@
+-- 共享计数表（vote.tally.mode=shared）：多实例部署时各实例从这里读取精确计数
+-- 每个（选举、批次、轮次、候选人、投票类型）分为 vote.tally.shards 个计数行，选票事务随机选一个分片累加；
+-- candidate_id、vote_type 均为空串的行记录该轮投票人数
+-- 迁移：建表后在没有选票写入时对每个选举调用 POST /api/admin/tally/rebuild（或 /api/admin/elections/{id}/tally/rebuild）
+-- 按已有选票重建当前批次的计数，再切换配置
+
+CREATE TABLE IF NOT EXISTS candidate_tally (
+    election_id  INT         NOT NULL,
+    epoch        INT         NOT NULL,
+    round        TINYINT     NOT NULL,
+    candidate_id VARCHAR(64) NOT NULL,
+    vote_type    VARCHAR(10) NOT NULL,
+    shard        SMALLINT    NOT NULL,
+    cnt          BIGINT      NOT NULL,
+    PRIMARY KEY (election_id, epoch, round, candidate_id, vote_type, shard)
+);
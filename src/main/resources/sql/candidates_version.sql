@@ -0,0 +1,4 @@
+-- 候选人版本：候选人或晋级名单变更时在同一事务中递增，各实例定期刷新配置时发现变化即重建候选人目录
+-- 迁移：停服后执行（所有部署都需要，配置实体映射了该列）
+
+ALTER TABLE vote_config ADD COLUMN candidates_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,34 @@
+-- 选举批次（epoch）：选票按批次存储，重置投票时归档当前批次并切换到新批次，不再逐行删除选票
+-- 迁移：停服后依次执行以下语句，现有选票归入批次 1
+
+ALTER TABLE vote_config ADD COLUMN current_epoch INT NOT NULL DEFAULT 1;
+
+-- 主键以批次开头，InnoDB 按主键聚簇存储，同一批次的选票在物理上连续，
+-- 当前批次的查询与写入只涉及最新的一段数据。唯一键名以实际库为准（SHOW INDEX FROM vote_record）
+ALTER TABLE vote_record
+    ADD COLUMN epoch INT NOT NULL DEFAULT 1 AFTER id,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (epoch, id),
+    DROP INDEX uk_vote_record_voter_candidate_round,
+    ADD UNIQUE KEY uk_vote_record_epoch_voter_candidate_round (epoch, voter_id, candidate_id, round);
+
+-- 压缩选票的自增主键本身按写入顺序排列，只需把批次加入唯一键（仅在已执行 packed_ballot.sql 时执行）
+ALTER TABLE packed_ballot
+    ADD COLUMN epoch INT NOT NULL DEFAULT 1 AFTER id,
+    DROP INDEX uk_packed_ballot_voter_round,
+    ADD UNIQUE KEY uk_packed_ballot_epoch_voter_round (epoch, voter_id, round);
+
+CREATE TABLE IF NOT EXISTS election_archive (
+    epoch         INT         NOT NULL PRIMARY KEY,
+    final_status  VARCHAR(20),
+    round1_voters BIGINT,
+    round2_voters BIGINT,
+    archived_at   DATETIME
+);
+
+-- 可选：按批次分区，不再需要的归档可用 ALTER TABLE ... DROP PARTITION 整体删除，而不是逐行 DELETE。
+-- 分区键必须包含在所有唯一键中（上面已满足）；新批次的选票落入 pmax，可用 REORGANIZE PARTITION 拆出独立分区，例如：
+-- ALTER TABLE vote_record PARTITION BY RANGE (epoch) (
+--     PARTITION p1 VALUES LESS THAN (2),
+--     PARTITION pmax VALUES LESS THAN MAXVALUE
+-- );
@@ -0,0 +1,38 @@
+-- 多选举：配置、候选人、选票与归档按选举隔离，现有数据归入默认选举 1
+-- 迁移：停服后依次执行以下语句（需先完成 election_epoch.sql）；旧的 /api/vote、/api/admin 接口继续操作选举 1
+
+CREATE TABLE IF NOT EXISTS election (
+    id         INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    created_at DATETIME
+);
+
+INSERT INTO election (id, name, created_at) VALUES (1, '默认选举', NOW());
+
+-- vote_config 每个选举一行，id 与选举ID相同；原来只有一行配置，统一为 1
+UPDATE vote_config SET id = 1;
+
+ALTER TABLE candidate
+    ADD COLUMN election_id INT NOT NULL DEFAULT 1 AFTER id,
+    ADD INDEX idx_candidate_election (election_id);
+
+-- 主键以选举、批次开头，同一选举同一批次的选票在物理上连续
+ALTER TABLE vote_record
+    ADD COLUMN election_id INT NOT NULL DEFAULT 1 AFTER id,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (election_id, epoch, id),
+    DROP INDEX uk_vote_record_epoch_voter_candidate_round,
+    ADD UNIQUE KEY uk_vote_record_election_epoch_voter_candidate_round (election_id, epoch, voter_id, candidate_id, round);
+
+-- 仅在已执行 packed_ballot.sql 时执行
+ALTER TABLE packed_ballot
+    ADD COLUMN election_id INT NOT NULL DEFAULT 1 AFTER id,
+    DROP INDEX uk_packed_ballot_epoch_voter_round,
+    ADD UNIQUE KEY uk_packed_ballot_election_epoch_voter_round (election_id, epoch, voter_id, round);
+
+-- 归档改用自增主键，(选举, 批次) 唯一
+ALTER TABLE election_archive
+    DROP PRIMARY KEY,
+    ADD COLUMN id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY FIRST,
+    ADD COLUMN election_id INT NOT NULL DEFAULT 1 AFTER id,
+    ADD UNIQUE KEY uk_election_archive_election_epoch (election_id, epoch);
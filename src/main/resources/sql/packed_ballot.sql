@@ -0,0 +1,20 @@
+-- 压缩选票存储（vote.storage.layout=packed）
+-- 迁移：建表后调用 POST /api/admin/storage/migrate-packed 将 vote_record 转换为压缩选票，再切换配置
+-- 此处保持最初的表结构，批次与选举列由后续迁移 election_epoch.sql、multi_election.sql 依次加入，
+-- 排列按选举编号与 choices 改为 BLOB 见 packed_layout_per_election.sql，新部署也按顺序执行全部脚本
+
+CREATE TABLE IF NOT EXISTS ballot_layout (
+    version       INT          NOT NULL PRIMARY KEY,
+    candidate_ids MEDIUMTEXT   NOT NULL,
+    created_at    DATETIME
+);
+
+CREATE TABLE IF NOT EXISTS packed_ballot (
+    id             BIGINT         NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    voter_id       VARCHAR(100)   NOT NULL,
+    round          TINYINT        NOT NULL,
+    layout_version INT            NOT NULL,
+    choices        VARBINARY(1024) NOT NULL,
+    created_at     DATETIME,
+    UNIQUE KEY uk_packed_ballot_voter_round (voter_id, round)
+);
@@ -0,0 +1,16 @@
+-- 压缩选票的候选人排列按选举编号：每个选举的排列只包含本选举的候选人，删除的候选人在下一版本中去掉，
+-- 排列长度不再随所有选举、反复导入累计的候选人数增长；choices 改为 BLOB，不再限定 1024 字节（4096 位候选人）
+-- 迁移：停服后执行（需先完成 multi_election.sql；仅在已执行 packed_ballot.sql 时执行）
+
+ALTER TABLE ballot_layout
+    ADD COLUMN election_id INT NOT NULL DEFAULT 1 FIRST,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (election_id, version);
+
+-- 原来的全局排列由所有选举共用：复制到其他选举名下，已写入的选票仍能按原版本号解码
+INSERT INTO ballot_layout (election_id, version, candidate_ids, created_at)
+SELECT e.id, l.version, l.candidate_ids, l.created_at
+FROM ballot_layout l JOIN election e ON e.id <> l.election_id
+WHERE l.election_id = 1;
+
+ALTER TABLE packed_ballot MODIFY COLUMN choices BLOB NOT NULL;
@@ -0,0 +1,7 @@
+-- 读写分离：副本滞后检测用的心跳表，在主库执行，随复制同步到只读副本
+-- 开启 vote.db.replica.enabled 前执行；各实例每隔 vote.db.replica.check-ms 写入当前时间（毫秒）
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id      TINYINT NOT NULL PRIMARY KEY,
+    beat_ms BIGINT  NOT NULL
+);
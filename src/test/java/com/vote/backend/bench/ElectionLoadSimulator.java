@@ -0,0 +1,303 @@
+package com.vote.backend.bench;
+
+import com.vote.backend.BackendApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 端到端选举演练
+ * 以嵌入式数据库（H2 MySQL 模式，见 application-sim.yml）启动应用，按正式流程走完两轮：
+ * 导入候选人 → 开启第一轮 → 并发投票同时大屏轮询 → 结束第一轮（自动晋级）→ 第二轮投票 → 结束第二轮。
+ * 每轮输出吞吐、延迟分位数、错误率与数据库语句数，并核对计票人数与成功提交数是否一致。
+ * 选票由固定随机种子生成，参数相同则投票分布相同。
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.vote.backend.bench.ElectionLoadSimulator \
+ *       -Dexec.args="150 2000 200 20 42 --vote.ingest.mode=group"
+ * 参数依次为：候选人数、投票人数、并发提交数、大屏数、随机种子；其余 --key=value 参数原样传给应用。
+ */
+public class ElectionLoadSimulator {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    // 候选人中常务理事所占比例，其余为负责人
+    private static final double DIRECTOR_SHARE = 0.8;
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            (arg.startsWith("--") ? appArgs : positional).add(arg);
+        }
+        int candidates = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : 150;
+        int voters = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 2000;
+        int concurrency = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : 200;
+        int screens = positional.size() > 3 ? Integer.parseInt(positional.get(3)) : 20;
+        long seed = positional.size() > 4 ? Long.parseLong(positional.get(4)) : 42L;
+
+        if (appArgs.stream().noneMatch(a -> a.startsWith("--vote.ingest.journal-dir="))) {
+            appArgs.add("--vote.ingest.journal-dir=" + Files.createTempDirectory("vote-sim-journal"));
+        }
+
+        StatementCounter statements = new StatementCounter();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("sim")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(statements))
+                .run(appArgs.toArray(String[]::new));
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(Executors.newCachedThreadPool())
+                    .build();
+            Simulation simulation = new Simulation(client, baseUrl, statements, seed);
+            System.out.println(simulation.run(candidates, voters, concurrency, screens));
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 一次完整的两轮演练
+     */
+    static class Simulation {
+
+        private final HttpClient client;
+        private final String baseUrl;
+        private final StatementCounter statements;
+        private final long seed;
+        private final StringBuilder report = new StringBuilder();
+
+        Simulation(HttpClient client, String baseUrl, StatementCounter statements, long seed) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.statements = statements;
+            this.seed = seed;
+        }
+
+        String run(int candidates, int voters, int concurrency, int screens) throws Exception {
+            report.append(String.format("候选人 %d，投票人 %d，并发 %d，大屏 %d，随机种子 %d%n%n",
+                    candidates, voters, concurrency, screens, seed));
+
+            long seeded = statements.get();
+            for (int i = 0; i < candidates; i++) {
+                String category = i < Math.round(candidates * DIRECTOR_SHARE) ? "director" : "manager";
+                admin("/api/admin/candidates", String.format(
+                        "{\"name\":\"候选人%04d\",\"title\":\"演练\",\"category\":\"%s\"}", i + 1, category));
+            }
+            report.append(String.format("导入候选人：数据库语句 %d%n%n", statements.get() - seeded));
+
+            admin("/api/admin/round/start-round1", "");
+            runRound(1, voters, concurrency, screens);
+            admin("/api/admin/round/end-round1", "");
+            admin("/api/admin/round/start-round2", "");
+            runRound(2, voters, concurrency, screens);
+            admin("/api/admin/round/end-round2", "");
+            return report.toString();
+        }
+
+        private void runRound(int round, int voters, int concurrency, int screens) throws Exception {
+            JsonNode status = data(HttpLoadBenchmark.get(client, baseUrl + "/api/vote/status"));
+            int directorMax = status.get("round" + round + "DirectorMaxApprove").asInt();
+            int managerMax = status.get("round" + round + "ManagerMaxApprove").asInt();
+            BallotGenerator generator = new BallotGenerator(
+                    data(HttpLoadBenchmark.get(client, baseUrl + "/api/vote/candidates?round=" + round)),
+                    round, directorMax, managerMax, seed);
+
+            long before = statements.get();
+            HttpLoadBenchmark.LoadReport load = HttpLoadBenchmark.run(client, baseUrl, voters, concurrency, screens,
+                    v -> generator.ballot("sim-" + round + "-" + v, v));
+            long executed = statements.get() - before;
+
+            long accepted = voters - load.summaries().get(0).errors();
+            long tallied = data(HttpLoadBenchmark.get(client, baseUrl + "/api/vote/live-results")).get("voterCount").asLong();
+
+            report.append(String.format("第%d轮（候选人 %d）%n", round, generator.size()));
+            report.append(load.format());
+            report.append(String.format("数据库语句 %d，平均每张成功选票 %.2f%n",
+                    executed, accepted == 0 ? 0 : (double) executed / accepted));
+            report.append(String.format("计票人数 %d，成功提交 %d%s%n%n",
+                    tallied, accepted, tallied == accepted ? "" : "（不一致）"));
+        }
+
+        // 调用管理端接口，记录耗时与数据库语句数；失败时终止演练
+        private void admin(String path, String body) throws Exception {
+            long before = statements.get();
+            long start = System.nanoTime();
+            HttpResponse<String> response = HttpLoadBenchmark.post(client, baseUrl + path, body);
+            double elapsedMs = (System.nanoTime() - start) / 1e6;
+            JsonNode json = JSON.readTree(response.body());
+            if (response.statusCode() != 200 || !json.get("success").asBoolean()) {
+                throw new IllegalStateException(path + " 调用失败: " + response.body());
+            }
+            if (path.startsWith("/api/admin/round/")) {
+                report.append(String.format("%s：%.1f ms，数据库语句 %d%n%n",
+                        path.substring("/api/admin/round/".length()), elapsedMs, statements.get() - before));
+            }
+        }
+
+        private static JsonNode data(HttpResponse<String> response) {
+            return JSON.readTree(response.body()).get("data");
+        }
+    }
+
+    /**
+     * 按随机种子生成选票
+     * 每位候选人有固定的支持率，投票人按随机顺序逐个决定赞成，赞成数不超过类别上限，
+     * 其余候选人按 1:4 投反对或弃权。第 v 位投票人的选票只取决于种子、轮次与 v，与提交顺序无关。
+     */
+    static class BallotGenerator {
+
+        private final int round;
+        private final long seed;
+        private final String[] ids;
+        private final boolean[] director;
+        private final double[] popularity;
+        private final int directorMax;
+        private final int managerMax;
+
+        BallotGenerator(JsonNode candidates, int round, int directorMax, int managerMax, long seed) {
+            this.round = round;
+            this.seed = seed;
+            this.directorMax = directorMax;
+            this.managerMax = managerMax;
+            int size = candidates.size();
+            this.ids = new String[size];
+            this.director = new boolean[size];
+            this.popularity = new double[size];
+            for (int i = 0; i < size; i++) {
+                JsonNode c = candidates.get(i);
+                ids[i] = c.get("id").asString();
+                director[i] = "director".equals(c.get("category").asString());
+                // 支持率按候选人姓名取种子，两轮之间保持一致
+                popularity[i] = 0.1 + 0.8 * new Random(seed ^ c.get("name").asString().hashCode()).nextDouble();
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        String ballot(String voterId, int v) {
+            Random random = new Random(seed * 1_000_003L + round * 100_003L + v);
+            int[] order = new int[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+
+            int directorApproves = 0;
+            int managerApproves = 0;
+            StringBuilder votes = new StringBuilder();
+            for (int i : order) {
+                String voteType;
+                if (random.nextDouble() < popularity[i]
+                        && (director[i] ? directorApproves < directorMax : managerApproves < managerMax)) {
+                    voteType = "approve";
+                    if (director[i]) {
+                        directorApproves++;
+                    } else {
+                        managerApproves++;
+                    }
+                } else {
+                    voteType = random.nextInt(5) == 0 ? "oppose" : "abstain";
+                }
+                if (votes.length() > 0) {
+                    votes.append(',');
+                }
+                votes.append('"').append(ids[i]).append("\":\"").append(voteType).append('"');
+            }
+            return "{\"voterId\":\"" + voterId + "\",\"round\":" + round + ",\"votes\":{" + votes + "}}";
+        }
+    }
+
+    /**
+     * 统计数据库语句执行次数（每次 execute/executeQuery/executeUpdate/executeBatch 计一次往返）
+     */
+    static class StatementCounter implements BeanPostProcessor {
+
+        private final AtomicLong executed = new AtomicLong();
+
+        long get() {
+            return executed.get();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                return new CountingDataSource(dataSource);
+            }
+            return bean;
+        }
+
+        private class CountingDataSource extends DelegatingDataSource {
+
+            CountingDataSource(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return wrapConnection(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return wrapConnection(super.getConnection(username, password));
+            }
+        }
+
+        private Connection wrapConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof Statement statement && method.getName().matches("createStatement|prepareStatement|prepareCall")) {
+                            return wrapStatement(statement, method.getReturnType());
+                        }
+                        return result;
+                    });
+        }
+
+        private Object wrapStatement(Statement statement, Class<?> type) {
+            return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            executed.incrementAndGet();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
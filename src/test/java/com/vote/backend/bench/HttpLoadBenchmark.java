@@ -0,0 +1,219 @@
+package com.vote.backend.bench;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * /submit 与 /live-results 吞吐与延迟对比基准
+ * 对一个已启动、第一轮已开放的实例施压：并发投票人提交选票，同时若干大屏轮询实时结果，
+ * 输出两个接口的吞吐、p50/p99 延迟与错误数。
+ *
+ * 对比虚拟线程模式时分别以
+ *   --spring.threads.virtual.enabled=false
+ *   --spring.threads.virtual.enabled=true --vote.db.limiter.enabled=true
+ * 启动应用，各运行一次：
+ *   java -cp target/test-classes:&lt;依赖&gt; com.vote.backend.bench.HttpLoadBenchmark http://localhost:8080 1000 200 20
+ * 参数依次为：服务地址、投票人数、并发提交数、大屏数。
+ */
+public class HttpLoadBenchmark {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int voters = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int screens = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+
+        List<String> candidateIds = new ArrayList<>();
+        JsonNode candidates = JSON.readTree(get(client, baseUrl + "/api/vote/candidates?round=1").body());
+        candidates.get("data").forEach(c -> candidateIds.add(c.get("id").asString()));
+        if (candidateIds.isEmpty()) {
+            throw new IllegalStateException("没有候选人，请先导入候选人并开启第一轮");
+        }
+
+        LoadReport report = run(client, baseUrl, candidateIds, voters, concurrency, screens);
+        System.out.println(report.format());
+    }
+
+    /**
+     * 执行一次压测：voters 张选票以 concurrency 并发提交，期间 screens 个大屏持续轮询
+     */
+    public static LoadReport run(HttpClient client, String baseUrl, List<String> candidateIds,
+                                 int voters, int concurrency, int screens) throws Exception {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        return run(client, baseUrl, voters, concurrency, screens, v -> ballot("bench-" + runId + "-" + v, candidateIds));
+    }
+
+    /**
+     * 执行一次压测，第 v 张选票的请求体由 ballots 生成
+     */
+    public static LoadReport run(HttpClient client, String baseUrl, int voters, int concurrency, int screens,
+                                 IntFunction<String> ballots) throws Exception {
+        LatencyRecorder submit = new LatencyRecorder("submit");
+        LatencyRecorder live = new LatencyRecorder("live-results");
+
+        ExecutorService pollers = Executors.newFixedThreadPool(Math.max(1, screens));
+        AtomicInteger running = new AtomicInteger(1);
+        for (int s = 0; s < screens; s++) {
+            pollers.submit(() -> {
+                while (running.get() == 1) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = get(client, baseUrl + "/api/vote/live-results");
+                        live.record(System.nanoTime() - start, response.statusCode() == 200 ? null : "HTTP " + response.statusCode());
+                    } catch (Exception e) {
+                        live.record(System.nanoTime() - start, e.getClass().getSimpleName());
+                    }
+                }
+                return null;
+            });
+        }
+
+        ExecutorService submitters = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(voters);
+        long begin = System.nanoTime();
+        for (int v = 0; v < voters; v++) {
+            String body = ballots.apply(v);
+            submitters.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<String> response = post(client, baseUrl + "/api/vote/submit", body);
+                    submit.record(System.nanoTime() - start, submitError(response));
+                } catch (Exception e) {
+                    submit.record(System.nanoTime() - start, e.getClass().getSimpleName());
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        running.set(0);
+        submitters.shutdown();
+        pollers.shutdown();
+        pollers.awaitTermination(30, TimeUnit.SECONDS);
+
+        return new LoadReport(elapsed, List.of(submit.summary(elapsed), live.summary(elapsed)));
+    }
+
+    // 提交失败原因：非 200 记状态码，业务拒绝记返回消息；成功返回 null
+    private static String submitError(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            return "HTTP " + response.statusCode();
+        }
+        JsonNode json = JSON.readTree(response.body());
+        return json.get("success").asBoolean() ? null : json.get("message").asString();
+    }
+
+    // 所有候选人投弃权票，不受赞成票上限影响
+    static String ballot(String voterId, List<String> candidateIds) {
+        StringBuilder votes = new StringBuilder();
+        for (String id : candidateIds) {
+            if (votes.length() > 0) {
+                votes.append(',');
+            }
+            votes.append('"').append(id).append("\":\"abstain\"");
+        }
+        return "{\"voterId\":\"" + voterId + "\",\"round\":1,\"votes\":{" + votes + "}}";
+    }
+
+    static HttpResponse<String> get(HttpClient client, String url) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    static HttpResponse<String> post(HttpClient client, String url, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * 延迟记录
+     */
+    public static class LatencyRecorder {
+
+        private final String name;
+        private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+        private final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+        public LatencyRecorder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 记录一次请求，error 为失败原因，成功时为 null
+         */
+        public void record(long nanos, String error) {
+            samples.add(nanos);
+            if (error != null) {
+                errors.computeIfAbsent(error, k -> new AtomicLong()).incrementAndGet();
+            }
+        }
+
+        public Summary summary(long elapsedNanos) {
+            long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Long> errorKinds = new TreeMap<>();
+            errors.forEach((kind, count) -> errorKinds.put(kind, count.get()));
+            return new Summary(name, sorted.length, errorKinds.values().stream().mapToLong(Long::longValue).sum(), errorKinds,
+                    sorted.length / (elapsedNanos / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+
+    /**
+     * 单个接口的统计
+     */
+    public record Summary(String name, long requests, long errors, Map<String, Long> errorKinds, double throughput,
+                          double p50Ms, double p99Ms, double maxMs) {
+
+        public double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    /**
+     * 压测报告
+     */
+    public record LoadReport(long elapsedNanos, List<Summary> summaries) {
+
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("耗时 %.2f s%n", elapsedNanos / 1e9));
+            sb.append(String.format("%-14s %8s %7s %8s %10s %9s %9s %9s%n",
+                    "接口", "请求数", "错误", "错误率", "吞吐/s", "p50 ms", "p99 ms", "max ms"));
+            for (Summary s : summaries) {
+                sb.append(String.format("%-14s %8d %7d %7.2f%% %10.1f %9.2f %9.2f %9.2f%n",
+                        s.name(), s.requests(), s.errors(), s.errorRate() * 100, s.throughput(), s.p50Ms(), s.p99Ms(), s.maxMs()));
+                s.errorKinds().forEach((kind, count) -> sb.append(String.format("    %s × %d%n", kind, count)));
+            }
+            return sb.toString();
+        }
+    }
+}
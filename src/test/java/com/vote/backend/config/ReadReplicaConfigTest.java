@@ -0,0 +1,148 @@
+package com.vote.backend.config;
+
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.service.Ballot;
+import com.vote.backend.service.BallotLayoutService;
+import com.vote.backend.service.PackedBallotCodec;
+import com.vote.backend.service.PackedBallotStore;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaConfigTest {
+
+    private static final BallotLayoutService.Layout LAYOUT = new BallotLayoutService.Layout(1, List.of("c1"), Map.of("c1", 0));
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private ReadReplicaConfig.ReplicaLagMonitor monitor;
+    private ReadReplicaConfig.ReplicaAwareTransactionManager transactionManager;
+    private PackedBallotStore packedBallotStore;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool("primary");
+        replica = pool("replica");
+        // 两个库各存一张选票，读到哪张即可知道连接来自哪个连接池
+        insertBallot(primary, "on-primary");
+        insertBallot(replica, "on-replica");
+
+        monitor = new ReadReplicaConfig.ReplicaLagMonitor(primary, replica, 2000L, new SimpleMeterRegistry());
+        ReadReplicaConfig.ReplicaRoutingDataSource routing = new ReadReplicaConfig.ReplicaRoutingDataSource(primary, replica, monitor);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(routing);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan("com.vote.backend.entity");
+        entityManagerFactory.afterPropertiesSet();
+        transactionManager = new ReadReplicaConfig.ReplicaAwareTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory.getObject());
+        transactionManager.afterPropertiesSet();
+
+        BallotLayoutService ballotLayoutService = mock(BallotLayoutService.class);
+        when(ballotLayoutService.get(1, 1)).thenReturn(LAYOUT);
+        PackedBallotStore target = new PackedBallotStore(null, ballotLayoutService, new JdbcTemplate(routing), null);
+        ReflectionTestUtils.setField(target, "fetchSize", 100);
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        packedBallotStore = (PackedBallotStore) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readsLabelledTransactionsFromACurrentReplica() {
+        heartbeat(System.currentTimeMillis());
+
+        assertThat(readVoters()).containsExactly("on-replica");
+        assertThat(monitor.isUsable()).isTrue();
+    }
+
+    @Test
+    void keepsTallyLoadsOnThePrimaryTransaction() {
+        heartbeat(System.currentTimeMillis());
+
+        // 计票加载在未标注的主库事务中读取压缩选票，加入该事务而不是改走副本
+        List<String> voters = new TransactionTemplate(transactionManager).execute(status -> readVoters());
+
+        assertThat(voters).containsExactly("on-primary");
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaLags() {
+        heartbeat(System.currentTimeMillis() - 10_000L);
+
+        assertThat(monitor.isUsable()).isFalse();
+        assertThat(readVoters()).containsExactly("on-primary");
+    }
+
+    @Test
+    void fallsBackToThePrimaryBeforeTheFirstHeartbeat() {
+        assertThat(readVoters()).containsExactly("on-primary");
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaRefusesConnections() {
+        heartbeat(System.currentTimeMillis());
+        replica.close();
+
+        assertThat(readVoters()).containsExactly("on-primary");
+        assertThat(monitor.isUsable()).isFalse();
+    }
+
+    // 在副本写入心跳后执行一次检测（两个库之间没有复制，心跳直接写入副本）
+    private void heartbeat(long beatMs) {
+        new JdbcTemplate(replica).update("INSERT INTO replica_heartbeat (id, beat_ms) VALUES (1, ?)", beatMs);
+        monitor.check();
+    }
+
+    private List<String> readVoters() {
+        List<String> voters = new ArrayList<>();
+        packedBallotStore.forEachBallot(1, 1, 1, (Ballot ballot) -> voters.add(ballot.voterId()));
+        return voters;
+    }
+
+    private static void insertBallot(HikariDataSource dataSource, String voterId) {
+        byte[] choices = PackedBallotCodec.encode(Map.of("c1", VoteRecord.VoteType.approve), LAYOUT.positions(), 1);
+        new JdbcTemplate(dataSource).update(
+                "INSERT INTO packed_ballot (election_id, epoch, voter_id, round, layout_version, choices) VALUES (1, 1, ?, 1, 1, ?)",
+                voterId, choices);
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:sql/sim-schema.sql'");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        return dataSource;
+    }
+}
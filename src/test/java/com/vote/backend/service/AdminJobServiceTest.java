@@ -0,0 +1,123 @@
+package com.vote.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdminJobServiceTest {
+
+    private final AdminJobService service = new AdminJobService();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "queueSize", 1);
+        ReflectionTestUtils.setField(service, "retention", 100);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void recordsProgressAndResult() {
+        AdminJobService.Job job = service.submit("import", progress -> {
+            progress.update(3, 3);
+            return "导入 3 位候选人";
+        });
+
+        awaitStatus(job, AdminJobService.Status.succeeded);
+        assertThat(job.toView()).containsEntry("done", 3L).containsEntry("total", 3L)
+                .containsEntry("result", "导入 3 位候选人");
+    }
+
+    @Test
+    void recordsTheFailureMessage() {
+        AdminJobService.Job job = service.submit("reset", progress -> {
+            throw new IllegalStateException("当前状态不允许重置");
+        });
+
+        awaitStatus(job, AdminJobService.Status.failed);
+        assertThat(job.toView()).containsEntry("message", "当前状态不允许重置");
+    }
+
+    @Test
+    void cancelsARunningJobAtItsNextProgressReport() {
+        CountDownLatch started = new CountDownLatch(1);
+        AdminJobService.Job job = service.submit("export", progress -> {
+            started.countDown();
+            release.await();
+            progress.update(1, 10);
+            return "未取消";
+        });
+        await(started);
+
+        assertThat(service.cancel(job.getId())).isTrue();
+        release.countDown();
+
+        awaitStatus(job, AdminJobService.Status.cancelled);
+        assertThat(job.toView().get("result")).isNull();
+    }
+
+    @Test
+    void cancelsAQueuedJobWithoutRunningIt() {
+        CountDownLatch started = new CountDownLatch(1);
+        service.submit("export", progress -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        await(started);
+        AdminJobService.Job queued = service.submit("import", progress -> {
+            throw new AssertionError("已取消的任务不应执行");
+        });
+
+        assertThat(service.cancel(queued.getId())).isTrue();
+
+        assertThat(queued.getStatus()).isEqualTo(AdminJobService.Status.cancelled);
+        assertThat(service.cancel(queued.getId())).isFalse();
+    }
+
+    @Test
+    void rejectsJobsWhenThePoolAndQueueAreFull() {
+        CountDownLatch started = new CountDownLatch(1);
+        service.submit("export", progress -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        await(started);
+        service.submit("export", progress -> null);
+
+        assertThatThrownBy(() -> service.submit("export", progress -> null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.list()).hasSize(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void awaitStatus(AdminJobService.Job job, AdminJobService.Status status) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(job.getStatus()).isEqualTo(status);
+    }
+}
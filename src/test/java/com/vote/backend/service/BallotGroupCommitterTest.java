@@ -0,0 +1,189 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BallotGroupCommitterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final BallotStore ballotStore = mock(BallotStore.class);
+    private final VoterIndexService voterIndexService = mock(VoterIndexService.class);
+    // 每次 saveGroup 写入的选票（复制，committer 会复用批次列表）
+    private final List<List<Ballot>> groups = new CopyOnWriteArrayList<>();
+    private final List<Ballot> singles = new CopyOnWriteArrayList<>();
+
+    private BallotGroupCommitter committer;
+
+    @AfterEach
+    void tearDown() {
+        if (committer != null) {
+            committer.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    void commitsConcurrentBallotsInOneGroup() throws Exception {
+        recordGroups();
+        start(3, 2000, 5000);
+
+        List<Future<?>> results = submitAll(ballot("v1"), ballot("v2"), ballot("v3"));
+
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.SECONDS);
+        }
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0)).extracting(Ballot::voterId).containsExactlyInAnyOrder("v1", "v2", "v3");
+    }
+
+    @Test
+    void rejectsDuplicatesWithinABatchAndAlreadyIndexedVoters() throws Exception {
+        recordGroups();
+        when(voterIndexService.hasVoted(1, "indexed", 1)).thenReturn(true);
+        start(3, 2000, 5000);
+
+        List<Future<?>> results = submitAll(ballot("v1"), ballot("v1"), ballot("indexed"));
+
+        assertThat(rejections(results)).containsExactlyInAnyOrder(null, BallotValidator.Rejection.already_voted,
+                BallotValidator.Rejection.already_voted);
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0)).extracting(Ballot::voterId).containsExactly("v1");
+    }
+
+    @Test
+    void fallsBackToSingleSavesWhenTheBatchFails() throws Exception {
+        doThrow(new DataIntegrityViolationException("duplicate")).when(ballotStore).saveGroup(anyList());
+        doAnswer(invocation -> {
+            Ballot ballot = invocation.getArgument(0);
+            if (ballot.voterId().equals("stored")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            if (ballot.voterId().equals("broken")) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            return singles.add(ballot);
+        }).when(ballotStore).save(any());
+        start(3, 2000, 5000);
+
+        List<Future<?>> results = submitAll(ballot("v1"), ballot("stored"), ballot("broken"));
+
+        List<Object> outcomes = new ArrayList<>();
+        for (Future<?> result : results) {
+            outcomes.add(outcome(result));
+        }
+        assertThat(outcomes).containsExactlyInAnyOrder(null, BallotValidator.Rejection.already_voted, "投票保存失败，请重试");
+        assertThat(singles).extracting(Ballot::voterId).containsExactly("v1");
+    }
+
+    @Test
+    void withdrawsABallotThatTimesOutBeforeBeingTaken() throws Exception {
+        recordGroups();
+        committer = committer(3, 5, 50);
+        ReflectionTestUtils.setField(committer, "mode", "direct");
+
+        // 写库线程未启动，选票一直在队列中
+        assertThatThrownBy(() -> committer.submit(ballot("v1")))
+                .isInstanceOfSatisfying(BallotRejectedException.class,
+                        e -> assertThat(e.getRejection()).isEqualTo(BallotValidator.Rejection.storage_failure));
+
+        ReflectionTestUtils.setField(committer, "mode", "group");
+        ReflectionTestUtils.setField(committer, "waitTimeoutMs", 5000L);
+        committer.start();
+        Future<?> later = executor.submit(() -> committer.submit(ballot("v2")));
+        later.get(2, TimeUnit.SECONDS);
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0)).extracting(Ballot::voterId).containsExactly("v2");
+    }
+
+    @Test
+    void reportsPendingWhenTheWriteIsAlreadyInProgress() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(ballotStore).saveGroup(anyList());
+        start(1, 5, 200);
+
+        Future<?> result = executor.submit(() -> committer.submit(ballot("v1")));
+        assertThat(writing.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(outcome(result)).isEqualTo("投票正在处理，请稍后查询投票状态");
+        release.countDown();
+        verify(ballotStore, never()).save(any());
+    }
+
+    private void recordGroups() {
+        doAnswer(invocation -> groups.add(List.copyOf(invocation.<List<Ballot>>getArgument(0))))
+                .when(ballotStore).saveGroup(anyList());
+    }
+
+    private void start(int maxSize, long windowMs, long waitMs) {
+        committer = committer(maxSize, windowMs, waitMs);
+        committer.start();
+    }
+
+    private BallotGroupCommitter committer(int maxSize, long windowMs, long waitMs) {
+        BallotGroupCommitter c = new BallotGroupCommitter(ballotStore, voterIndexService);
+        ReflectionTestUtils.setField(c, "mode", "group");
+        ReflectionTestUtils.setField(c, "groupWindowMs", windowMs);
+        ReflectionTestUtils.setField(c, "groupMaxSize", maxSize);
+        ReflectionTestUtils.setField(c, "waitTimeoutMs", waitMs);
+        return c;
+    }
+
+    private List<Future<?>> submitAll(Ballot... ballots) {
+        return Arrays.stream(ballots)
+                .<Future<?>>map(ballot -> executor.submit(() -> committer.submit(ballot)))
+                .toList();
+    }
+
+    private static List<BallotValidator.Rejection> rejections(List<Future<?>> results) throws Exception {
+        List<BallotValidator.Rejection> rejections = new ArrayList<>();
+        for (Future<?> result : results) {
+            rejections.add((BallotValidator.Rejection) outcome(result));
+        }
+        return rejections;
+    }
+
+    // 成功为 null，被拒绝为拒绝原因，其他异常为异常消息
+    private static Object outcome(Future<?> result) throws Exception {
+        try {
+            result.get(2, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause() instanceof BallotRejectedException rejected ? rejected.getRejection() : e.getCause().getMessage();
+        }
+    }
+
+    private static Ballot ballot(String voterId) {
+        return new Ballot(1, 1, voterId, 1, Map.of("c1", VoteRecord.VoteType.approve));
+    }
+}
@@ -0,0 +1,127 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class BallotJournalTest {
+
+    private static final Ballot FIRST = new Ballot(1, 1, "v1", 1,
+            Map.of("c1", VoteRecord.VoteType.approve, "c2", VoteRecord.VoteType.oppose));
+    private static final Ballot SECOND = new Ballot(2, 3, "v2", 2, Map.of("c3", VoteRecord.VoteType.abstain));
+
+    @TempDir
+    Path dir;
+
+    // 每个日志实例写入数据库的选票（按调用复制，日志会复用批次列表）
+    private final List<Ballot> stored = new ArrayList<>();
+
+    @Test
+    void flushWritesAppendedBallotsAndCompacts() throws IOException {
+        BallotJournal journal = open(recordingStore());
+        journal.append(FIRST);
+        journal.append(SECOND);
+
+        journal.flush();
+
+        assertThat(stored).containsExactly(FIRST, SECOND);
+        assertThat(Files.size(journalFile())).isZero();
+    }
+
+    @Test
+    void replaysUndrainedBallotsOnStartup() throws IOException {
+        BallotJournal crashed = open(failingStore());
+        crashed.append(FIRST);
+        crashed.append(SECOND);
+        assertThatThrownBy(crashed::flush).isInstanceOf(IllegalStateException.class);
+
+        open(recordingStore());
+
+        assertThat(stored).containsExactly(FIRST, SECOND);
+        assertThat(Files.size(journalFile())).isZero();
+    }
+
+    @Test
+    void doesNotReplayBallotsPastTheCheckpoint() throws IOException {
+        BallotJournal journal = open(recordingStore());
+        journal.append(FIRST);
+        journal.flush();
+        journal.append(SECOND);
+        stored.clear();
+
+        open(recordingStore());
+
+        assertThat(stored).containsExactly(SECOND);
+    }
+
+    @Test
+    void truncatesTornTailOnStartup() throws IOException {
+        BallotJournal crashed = open(failingStore());
+        crashed.append(FIRST);
+        // 宕机时只写了一半的记录：头部声明 100 字节内容，实际只有 3 字节
+        Files.write(journalFile(), ByteBuffer.allocate(11).putInt(100).putInt(0).array(), StandardOpenOption.APPEND);
+
+        open(recordingStore());
+
+        assertThat(stored).containsExactly(FIRST);
+        assertThat(Files.size(journalFile())).isZero();
+    }
+
+    @Test
+    void corruptRecordWhileRunningFailsWithoutTruncating() throws IOException {
+        BallotJournal journal = open(recordingStore());
+        journal.append(FIRST);
+        long size = Files.size(journalFile());
+        // 改坏内容的最后一个字节，CRC 不再匹配
+        try (FileChannel channel = FileChannel.open(journalFile(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), size - 1);
+        }
+
+        assertThatThrownBy(journal::flush).isInstanceOf(IOException.class).hasMessageContaining("损坏");
+        assertThat(stored).isEmpty();
+        assertThat(Files.size(journalFile())).isEqualTo(size);
+    }
+
+    private BallotJournal open(BallotStore store) throws IOException {
+        BallotJournal journal = new BallotJournal(store);
+        ReflectionTestUtils.setField(journal, "mode", "journal");
+        ReflectionTestUtils.setField(journal, "journalDir", dir.toString());
+        ReflectionTestUtils.setField(journal, "drainBatchSize", 200);
+        journal.open();
+        return journal;
+    }
+
+    private BallotStore recordingStore() {
+        BallotStore store = mock(BallotStore.class);
+        doAnswer(invocation -> stored.addAll(invocation.getArgument(0))).when(store).insertJournaled(anyList());
+        return store;
+    }
+
+    private static BallotStore failingStore() {
+        BallotStore store = mock(BallotStore.class);
+        doThrow(new IllegalStateException("数据库不可用")).when(store).insertJournaled(anyList());
+        return store;
+    }
+
+    private Path journalFile() {
+        return dir.resolve("ballots.journal");
+    }
+}
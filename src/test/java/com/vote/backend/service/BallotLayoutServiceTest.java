@@ -0,0 +1,127 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.repository.BallotLayoutRepository;
+import com.vote.backend.repository.CandidateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BallotLayoutServiceTest {
+
+    private final CandidateRepository candidateRepository = mock(CandidateRepository.class);
+    private final Map<Integer, List<Candidate>> candidates = new HashMap<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private BallotLayoutService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:layout-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                        + "INIT=RUNSCRIPT FROM 'classpath:sql/sim-schema.sql'", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        when(candidateRepository.findByElectionId(anyInt()))
+                .thenAnswer(invocation -> candidates.getOrDefault(invocation.<Integer>getArgument(0), List.of()));
+        service = new BallotLayoutService(mock(BallotLayoutRepository.class), candidateRepository,
+                jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void layoutsOnlyContainTheirOwnElectionsCandidates() {
+        // 两个选举合计 6000 位候选人，超过旧的全局排列 4096 位的上限
+        List<String> first = load(1, "a", 3000);
+        List<String> second = load(2, "b", 3000);
+
+        BallotLayoutService.Layout firstLayout = service.resolve(1, first);
+        BallotLayoutService.Layout secondLayout = service.resolve(2, second);
+
+        assertThat(firstLayout.candidateIds()).hasSize(3000).containsExactlyInAnyOrderElementsOf(first);
+        assertThat(secondLayout.candidateIds()).hasSize(3000).containsExactlyInAnyOrderElementsOf(second);
+        assertThat(firstLayout.version()).isEqualTo(1);
+        assertThat(secondLayout.version()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsDeletedCandidatesWhenReimported() {
+        List<String> original = load(1, "a", 3000);
+        BallotLayoutService.Layout before = service.resolve(1, original);
+
+        // 删除后重新导入，候选人ID全部更换，累计 6000 个ID
+        List<String> reimported = load(1, "b", 3000);
+        BallotLayoutService.Layout after = service.resolve(1, reimported);
+
+        assertThat(after.version()).isEqualTo(2);
+        assertThat(after.candidateIds()).hasSize(3000).containsExactlyInAnyOrderElementsOf(reimported);
+        assertThat(service.get(1, before.version())).isEqualTo(before);
+    }
+
+    @Test
+    void keepsSurvivingCandidatesInOrder() {
+        List<String> ids = load(1, "a", 4);
+        BallotLayoutService.Layout before = service.resolve(1, ids);
+
+        List<Candidate> next = new ArrayList<>(candidates.get(1).subList(1, 4));
+        next.add(candidate(1, "a9"));
+        candidates.put(1, next);
+        BallotLayoutService.Layout after = service.resolve(1, List.of("a9"));
+
+        assertThat(after.candidateIds()).containsExactly("a1", "a2", "a3", "a9");
+        assertThat(before.candidateIds()).containsExactly("a0", "a1", "a2", "a3");
+    }
+
+    @Test
+    void storesBallotsPastTheOld4096CandidateCap() {
+        List<String> ids = load(1, "c", 5000);
+        VoteConfig config = new VoteConfig();
+        config.setId(1);
+        config.setCurrentEpoch(1);
+        VoteConfigCache voteConfigCache = mock(VoteConfigCache.class);
+        when(voteConfigCache.get(1)).thenReturn(VoteConfigSnapshot.of(1, config));
+        PackedBallotStore store = new PackedBallotStore(null, service, jdbcTemplate, voteConfigCache);
+        ReflectionTestUtils.setField(store, "fetchSize", 100);
+        Map<String, VoteRecord.VoteType> votes = Map.of(ids.get(4999), VoteRecord.VoteType.oppose,
+                ids.get(0), VoteRecord.VoteType.approve);
+
+        store.insert(List.of(new Ballot(1, 1, "voter", 1, votes)), false);
+
+        List<Ballot> read = new ArrayList<>();
+        store.forEachBallot(1, 1, 1, read::add);
+        assertThat(read).containsExactly(new Ballot(1, 1, "voter", 1, votes));
+        assertThat(jdbcTemplate.queryForObject("SELECT LENGTH(choices) FROM packed_ballot", Integer.class)).isEqualTo(1250);
+    }
+
+    private List<String> load(int electionId, String prefix, int count) {
+        List<Candidate> list = new ArrayList<>(count);
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(candidate(electionId, prefix + i));
+            ids.add(prefix + i);
+        }
+        candidates.put(electionId, list);
+        return ids;
+    }
+
+    private static Candidate candidate(int electionId, String id) {
+        Candidate candidate = new Candidate();
+        candidate.setId(id);
+        candidate.setElectionId(electionId);
+        return candidate;
+    }
+}
@@ -0,0 +1,89 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.event.BallotCommittedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BallotStoreTest {
+
+    private final List<Object> events = new ArrayList<>();
+    private final VoteConfigCache voteConfigCache = new VoteConfigCache(null, null);
+
+    private JdbcTemplate jdbcTemplate;
+    private BallotStore ballotStore;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:store-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                        + "INIT=RUNSCRIPT FROM 'classpath:sql/sim-schema.sql'", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        CandidateTallyStore candidateTallyStore = new CandidateTallyStore(jdbcTemplate);
+        ReflectionTestUtils.setField(candidateTallyStore, "mode", "shared");
+        ReflectionTestUtils.setField(candidateTallyStore, "shards", 4);
+        ballotStore = new BallotStore(null, new PackedBallotStore(null, null, jdbcTemplate, voteConfigCache),
+                candidateTallyStore, jdbcTemplate, events::add, voteConfigCache,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        advanceTo(1);
+    }
+
+    @Test
+    void ballotsValidatedBeforeAResetKeepTheirEpoch() {
+        Ballot stale = ballot(1, "early");
+        // 选票通过校验后投票被重置，批次切换到 2
+        advanceTo(2);
+
+        ballotStore.saveGroup(List.of(stale, ballot(2, "late")));
+
+        assertThat(voterEpochs("vote_record")).containsExactly("early@1", "late@2");
+        assertThat(voterEpochs("candidate_tally")).containsExactly("@1", "@2");
+        assertThat(events).containsExactly(
+                new BallotCommittedEvent(1, 1, "early", 1, stale.votes()),
+                new BallotCommittedEvent(1, 2, "late", 1, stale.votes()));
+    }
+
+    @Test
+    void journaledBallotsKeepTheirEpochAndSkipOnlyTheirOwnEpochsDuplicates() {
+        ballotStore.insertJournaled(List.of(ballot(1, "v1")));
+        advanceTo(2);
+
+        // 重放：旧批次的选票已落库被忽略，同一投票人在新批次的选票照常写入
+        ballotStore.insertJournaled(List.of(ballot(1, "v1"), ballot(2, "v1")));
+
+        assertThat(voterEpochs("vote_record")).containsExactly("v1@1", "v1@2");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(cnt) FROM candidate_tally WHERE epoch = 1 AND candidate_id = ''", Long.class)).isEqualTo(1);
+    }
+
+    private List<String> voterEpochs(String table) {
+        String voter = table.equals("vote_record") ? "voter_id" : "''";
+        String filter = table.equals("vote_record") ? "" : " WHERE candidate_id = ''";
+        return jdbcTemplate.queryForList("SELECT DISTINCT CONCAT(" + voter + ", '@', epoch) FROM " + table + filter
+                + " ORDER BY 1", String.class);
+    }
+
+    private void advanceTo(int epoch) {
+        VoteConfig config = new VoteConfig();
+        config.setId(1);
+        config.setCurrentEpoch(epoch);
+        voteConfigCache.publish(config);
+    }
+
+    private static Ballot ballot(int epoch, String voterId) {
+        return new Ballot(1, epoch, voterId, 1, Map.of("c1", VoteRecord.VoteType.approve));
+    }
+}
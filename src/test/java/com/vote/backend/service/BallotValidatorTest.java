@@ -0,0 +1,134 @@
+package com.vote.backend.service;
+
+import com.vote.backend.dto.VoteSubmitDTO;
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BallotValidatorTest {
+
+    private final BallotValidator validator = new BallotValidator();
+
+    // d1、d2、d3 为常务理事（d1 晋级第二轮），m1、m2 为负责人（m1 晋级第二轮）
+    private final CandidateCatalog.Snapshot catalog = new CandidateCatalog.Snapshot(1, List.of(
+            candidate("d1", Candidate.Category.director, true),
+            candidate("d2", Candidate.Category.director, false),
+            candidate("d3", Candidate.Category.director, false),
+            candidate("m1", Candidate.Category.manager, true),
+            candidate("m2", Candidate.Category.manager, false)));
+
+    // 第一轮常务理事最多 2 票赞成、负责人最多 1 票；第二轮各 1 票
+    private final VoteConfigSnapshot config = config();
+
+    @Test
+    void acceptsValidBallot() {
+        BallotValidator.Result result = validate(1, Map.of("d1", "approve", "d2", "approve", "d3", "oppose", "m1", "abstain"));
+
+        assertThat(result.isAccepted()).isTrue();
+        assertThat(result.ballot()).isEqualTo(new Ballot(7, 4, "voter", 1, Map.of(
+                "d1", VoteRecord.VoteType.approve,
+                "d2", VoteRecord.VoteType.approve,
+                "d3", VoteRecord.VoteType.oppose,
+                "m1", VoteRecord.VoteType.abstain)));
+    }
+
+    @Test
+    void rejectsInvalidRound() {
+        assertRejected(validate(3, Map.of("d1", "approve")), BallotValidator.Rejection.invalid_round);
+    }
+
+    @Test
+    void rejectsUnknownCandidate() {
+        assertRejected(validate(1, Map.of("nobody", "approve")), BallotValidator.Rejection.unknown_candidate);
+
+        Map<String, String> nullKey = new HashMap<>();
+        nullKey.put(null, "approve");
+        assertRejected(validate(1, nullKey), BallotValidator.Rejection.unknown_candidate);
+    }
+
+    @Test
+    void rejectsUnqualifiedCandidateInRound2() {
+        assertRejected(validate(2, Map.of("d2", "oppose")), BallotValidator.Rejection.not_qualified);
+        assertThat(validate(1, Map.of("d2", "oppose")).isAccepted()).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidVoteType() {
+        assertRejected(validate(1, Map.of("d1", "yes")), BallotValidator.Rejection.invalid_vote_type);
+
+        Map<String, String> nullType = new HashMap<>();
+        nullType.put("d1", null);
+        assertRejected(validate(1, nullType), BallotValidator.Rejection.invalid_vote_type);
+    }
+
+    @Test
+    void rejectsDirectorApprovalsOverLimit() {
+        assertRejected(validate(1, Map.of("d1", "approve", "d2", "approve", "d3", "approve")),
+                BallotValidator.Rejection.director_limit_exceeded);
+    }
+
+    @Test
+    void rejectsManagerApprovalsOverLimit() {
+        assertRejected(validate(1, Map.of("m1", "approve", "m2", "approve")),
+                BallotValidator.Rejection.manager_limit_exceeded);
+    }
+
+    @Test
+    void appliesRound2Limits() {
+        VoteConfigSnapshot tight = VoteConfigSnapshot.of(1, withRound2Limits(0, 1));
+
+        BallotValidator.Result result = validator.validate(dto(2, Map.of("d1", "approve")), tight, catalog);
+
+        assertRejected(result, BallotValidator.Rejection.director_limit_exceeded);
+        assertThat(validator.validate(dto(2, Map.of("d1", "oppose", "m1", "approve")), tight, catalog).isAccepted()).isTrue();
+    }
+
+    private BallotValidator.Result validate(int round, Map<String, String> votes) {
+        return validator.validate(dto(round, votes), config, catalog);
+    }
+
+    private static void assertRejected(BallotValidator.Result result, BallotValidator.Rejection rejection) {
+        assertThat(result.isAccepted()).isFalse();
+        assertThat(result.rejection()).isEqualTo(rejection);
+        assertThat(result.message()).isNotBlank();
+    }
+
+    private static VoteSubmitDTO dto(int round, Map<String, String> votes) {
+        VoteSubmitDTO dto = new VoteSubmitDTO();
+        dto.setVoterId("voter");
+        dto.setRound(round);
+        dto.setVotes(votes);
+        return dto;
+    }
+
+    private static VoteConfigSnapshot config() {
+        return VoteConfigSnapshot.of(1, withRound2Limits(1, 1));
+    }
+
+    private static VoteConfig withRound2Limits(int director, int manager) {
+        VoteConfig config = new VoteConfig();
+        config.setId(7);
+        config.setCurrentEpoch(4);
+        config.setRound1DirectorMaxApprove(2);
+        config.setRound1ManagerMaxApprove(1);
+        config.setRound2DirectorMaxApprove(director);
+        config.setRound2ManagerMaxApprove(manager);
+        return config;
+    }
+
+    private static Candidate candidate(String id, Candidate.Category category, boolean qualified) {
+        Candidate candidate = new Candidate();
+        candidate.setId(id);
+        candidate.setName("候选人" + id);
+        candidate.setCategory(category);
+        candidate.setIsRound2Qualified(qualified);
+        return candidate;
+    }
+}
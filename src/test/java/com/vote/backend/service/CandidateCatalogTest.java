@@ -0,0 +1,88 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.event.CandidatesChangedEvent;
+import com.vote.backend.repository.CandidateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CandidateCatalogTest {
+
+    private final CandidateRepository candidateRepository = mock(CandidateRepository.class);
+    private final VoteConfigCache voteConfigCache = new VoteConfigCache(null, null);
+    private final CandidateCatalog catalog = new CandidateCatalog(candidateRepository, voteConfigCache);
+
+    // electionId -> 数据库中的候选人
+    private final Map<Integer, List<Candidate>> candidates = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int id = 1; id <= 2; id++) {
+            VoteConfig config = new VoteConfig();
+            config.setId(id);
+            voteConfigCache.publish(config);
+        }
+        when(candidateRepository.findByElectionId(anyInt()))
+                .thenAnswer(invocation -> candidates.getOrDefault(invocation.<Integer>getArgument(0), List.of()));
+    }
+
+    @Test
+    void indexesCandidatesDensely() {
+        candidates.put(1, List.of(candidate("d1", Candidate.Category.director, true),
+                candidate("m1", Candidate.Category.manager, false),
+                candidate("d2", Candidate.Category.director, true)));
+
+        CandidateCatalog.Snapshot snapshot = catalog.get(1);
+
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.indexOf("m1")).isEqualTo(1);
+        assertThat(snapshot.indexOf("missing")).isEqualTo(-1);
+        assertThat(snapshot.idAt(2)).isEqualTo("d2");
+        assertThat(snapshot.categoryAt(1)).isEqualTo(Candidate.Category.manager);
+        assertThat(snapshot.isRound2QualifiedAt(1)).isFalse();
+        assertThat(snapshot.candidates(1)).extracting(Candidate::getId).containsExactly("d1", "m1", "d2");
+        assertThat(snapshot.candidates(2)).extracting(Candidate::getId).containsExactly("d1", "d2");
+        assertThat(catalog.get(1)).isSameAs(snapshot);
+    }
+
+    @Test
+    void rebuildsOnlyTheChangedLoadedElection() {
+        candidates.put(1, List.of(candidate("d1", Candidate.Category.director, false)));
+        candidates.put(2, List.of(candidate("x1", Candidate.Category.director, false)));
+        CandidateCatalog.Snapshot first = catalog.get(1);
+        CandidateCatalog.Snapshot other = catalog.get(2);
+
+        candidates.put(1, List.of(candidate("d1", Candidate.Category.director, true)));
+        catalog.onCandidatesChanged(new CandidatesChangedEvent(1));
+        // 未加载的选举不在变更时加载
+        catalog.onCandidatesChanged(new CandidatesChangedEvent(3));
+
+        CandidateCatalog.Snapshot rebuilt = catalog.get(1);
+        assertThat(rebuilt.getVersion()).isGreaterThan(first.getVersion());
+        assertThat(rebuilt.candidates(2)).extracting(Candidate::getId).containsExactly("d1");
+        assertThat(catalog.get(2)).isSameAs(other);
+        verify(candidateRepository, times(2)).findByElectionId(1);
+        verify(candidateRepository, never()).findByElectionId(3);
+    }
+
+    private static Candidate candidate(String id, Candidate.Category category, boolean round2Qualified) {
+        Candidate candidate = new Candidate();
+        candidate.setId(id);
+        candidate.setCategory(category);
+        candidate.setIsRound2Qualified(round2Qualified);
+        return candidate;
+    }
+}
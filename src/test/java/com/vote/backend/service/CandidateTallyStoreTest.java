@@ -0,0 +1,70 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandidateTallyStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CandidateTallyStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:tally-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                        + "INIT=RUNSCRIPT FROM 'classpath:sql/sim-schema.sql'", "sa", ""));
+        store = new CandidateTallyStore(jdbcTemplate);
+        ReflectionTestUtils.setField(store, "mode", "shared");
+        ReflectionTestUtils.setField(store, "shards", 4);
+    }
+
+    @Test
+    void sumsEveryShardIntoExactCounts() {
+        for (int i = 0; i < 50; i++) {
+            store.add(List.of(
+                    ballot(1, 1, "a" + i, 1, Map.of("c1", VoteRecord.VoteType.approve, "c2", VoteRecord.VoteType.oppose)),
+                    ballot(1, 1, "b" + i, 1, Map.of("c1", VoteRecord.VoteType.abstain))));
+        }
+
+        assertThat(store.sum(1, 1)).containsExactlyInAnyOrder(
+                new CandidateTallyStore.Count(1, "c1", VoteRecord.VoteType.approve, 50),
+                new CandidateTallyStore.Count(1, "c1", VoteRecord.VoteType.abstain, 50),
+                new CandidateTallyStore.Count(1, "c2", VoteRecord.VoteType.oppose, 50),
+                new CandidateTallyStore.Count(1, "", null, 100));
+        // 计数分散在多个分片行上
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT shard) FROM candidate_tally", Integer.class)).isGreaterThan(1);
+    }
+
+    @Test
+    void keepsElectionsAndEpochsApart() {
+        store.add(List.of(
+                ballot(1, 1, "v1", 1, Map.of("c1", VoteRecord.VoteType.approve)),
+                ballot(1, 2, "v1", 2, Map.of("c1", VoteRecord.VoteType.oppose)),
+                ballot(2, 1, "v1", 1, Map.of("c9", VoteRecord.VoteType.approve))));
+
+        assertThat(store.sum(1, 2)).containsExactlyInAnyOrder(
+                new CandidateTallyStore.Count(2, "c1", VoteRecord.VoteType.oppose, 1),
+                new CandidateTallyStore.Count(2, "", null, 1));
+
+        store.clear(1, 1);
+
+        assertThat(store.sum(1, 1)).isEmpty();
+        assertThat(store.sum(1, 2)).hasSize(2);
+        assertThat(store.sum(2, 1)).hasSize(2);
+    }
+
+    private static Ballot ballot(int electionId, int epoch, String voterId, int round, Map<String, VoteRecord.VoteType> votes) {
+        return new Ballot(electionId, epoch, voterId, round, votes);
+    }
+}
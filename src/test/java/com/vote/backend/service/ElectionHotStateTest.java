@@ -0,0 +1,92 @@
+package com.vote.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElectionHotStateTest {
+
+    private static final long KB = 1024;
+    private static final long MINUTE = 60_000;
+
+    private final FakeState tallies = new FakeState();
+    private final FakeState catalogs = new FakeState();
+    private final ElectionHotState hotState = new ElectionHotState(List.of(tallies, catalogs));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hotState, "memoryBudgetMb", 1L);
+        ReflectionTestUtils.setField(hotState, "minIdleMs", 10 * MINUTE);
+        // 选举 1、2 各约 600 KB，选举 3 约 300 KB，合计超出 1 MB 预算
+        tallies.bytes.putAll(Map.of(1, 400 * KB, 2, 400 * KB, 3, 300 * KB));
+        catalogs.bytes.putAll(Map.of(1, 200 * KB, 2, 200 * KB));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedIdleElectionsUntilWithinBudget() {
+        long now = System.currentTimeMillis();
+        lastAccess(1, now - 20 * MINUTE);
+        lastAccess(2, now - 15 * MINUTE);
+        hotState.touch(3);
+
+        hotState.enforceBudget();
+
+        // 淘汰最早访问的选举 1 后已回到预算以内
+        assertThat(tallies.bytes.keySet()).containsExactlyInAnyOrder(2, 3);
+        assertThat(catalogs.bytes.keySet()).containsExactly(2);
+        assertThat(hotState.loadedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsElectionsInUseEvenOverBudget() {
+        hotState.touch(1);
+        hotState.touch(2);
+        hotState.touch(3);
+
+        hotState.enforceBudget();
+
+        assertThat(hotState.loadedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNothingWithinBudget() {
+        tallies.bytes.remove(2);
+        catalogs.bytes.remove(2);
+
+        hotState.enforceBudget();
+
+        assertThat(hotState.loadedCount()).isEqualTo(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void lastAccess(int electionId, long millis) {
+        ((Map<Integer, Long>) ReflectionTestUtils.getField(hotState, "lastAccess")).put(electionId, millis);
+    }
+
+    private static final class FakeState implements ElectionScopedState {
+
+        private final Map<Integer, Long> bytes = new ConcurrentHashMap<>();
+
+        @Override
+        public Set<Integer> loadedElections() {
+            return bytes.keySet();
+        }
+
+        @Override
+        public long estimateBytes(int electionId) {
+            return bytes.getOrDefault(electionId, 0L);
+        }
+
+        @Override
+        public void evict(int electionId) {
+            bytes.remove(electionId);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedBallotCodecTest {
+
+    @Test
+    void roundTripsEveryVoteTypeAtEveryBitOffset() {
+        BallotLayoutService.Layout layout = layout(9);
+        Map<String, VoteRecord.VoteType> votes = new HashMap<>();
+        VoteRecord.VoteType[] types = VoteRecord.VoteType.values();
+        for (int i = 0; i < 9; i++) {
+            votes.put("c" + i, types[i % types.length]);
+        }
+
+        byte[] packed = PackedBallotCodec.encode(votes, layout.positions(), 9);
+
+        assertThat(packed).hasSize(3);
+        assertThat(PackedBallotCodec.decode(packed, layout.candidateIds())).isEqualTo(votes);
+    }
+
+    @Test
+    void omitsCandidatesWithoutAVote() {
+        BallotLayoutService.Layout layout = layout(5);
+        Map<String, VoteRecord.VoteType> votes = Map.of("c1", VoteRecord.VoteType.oppose, "c4", VoteRecord.VoteType.abstain);
+
+        byte[] packed = PackedBallotCodec.encode(votes, layout.positions(), 5);
+
+        assertThat(PackedBallotCodec.decode(packed, layout.candidateIds())).isEqualTo(votes);
+        assertThat(PackedBallotCodec.decode(PackedBallotCodec.encode(Map.of(), layout.positions(), 5), layout.candidateIds()))
+                .isEmpty();
+    }
+
+    @Test
+    void decodesWithALaterAppendOnlyLayout() {
+        BallotLayoutService.Layout old = layout(6);
+        Map<String, VoteRecord.VoteType> votes = Map.of("c0", VoteRecord.VoteType.approve, "c5", VoteRecord.VoteType.oppose);
+        byte[] packed = PackedBallotCodec.encode(votes, old.positions(), 6);
+
+        // 新版本只在末尾追加候选人，旧选票按新排列解码结果不变
+        assertThat(PackedBallotCodec.decode(packed, layout(20).candidateIds())).isEqualTo(votes);
+    }
+
+    @Test
+    void roundTripsRandomBallots() {
+        Random random = new Random(42);
+        BallotLayoutService.Layout layout = layout(301);
+        VoteRecord.VoteType[] types = VoteRecord.VoteType.values();
+        for (int n = 0; n < 200; n++) {
+            Map<String, VoteRecord.VoteType> votes = new HashMap<>();
+            for (String id : layout.candidateIds()) {
+                int pick = random.nextInt(types.length + 1);
+                if (pick < types.length) {
+                    votes.put(id, types[pick]);
+                }
+            }
+            byte[] packed = PackedBallotCodec.encode(votes, layout.positions(), 301);
+            assertThat(PackedBallotCodec.decode(packed, layout.candidateIds())).isEqualTo(votes);
+        }
+    }
+
+    @Test
+    void rejectsCandidatesOutsideTheLayout() {
+        BallotLayoutService.Layout layout = layout(3);
+
+        assertThatThrownBy(() -> PackedBallotCodec.encode(Map.of("x", VoteRecord.VoteType.approve), layout.positions(), 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BallotLayoutService.Layout layout(int size) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ids.add("c" + i);
+        }
+        return BallotLayoutService.Layout.of(1, ids);
+    }
+}
@@ -0,0 +1,108 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.Candidate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QualifyPreviewServiceTest {
+
+    private static final int ELECTION = 3;
+
+    private final CandidateCatalog candidateCatalog = mock(CandidateCatalog.class);
+    private final VoteTallyService voteTallyService = mock(VoteTallyService.class);
+    private final QualifyPreviewService service = new QualifyPreviewService(candidateCatalog, voteTallyService);
+
+    // 候选人ID -> 第一轮赞成票（ID 以 d 开头为常务理事，m 开头为负责人）
+    private final Map<String, Long> approvals = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(voteTallyService.getVoterCount(ELECTION, 1)).thenReturn(42L);
+        when(voteTallyService.getApproveCount(eq(ELECTION), eq(1), anyString()))
+                .thenAnswer(invocation -> approvals.getOrDefault(invocation.<String>getArgument(2), 0L));
+    }
+
+    @Test
+    void selectsTheTopKByApprovals() {
+        load(Map.of("d1", 5L, "d2", 9L, "d3", 1L, "d4", 7L));
+
+        Map<String, Object> directors = directors(service.preview(ELECTION, 2, 0));
+
+        assertThat(ids(directors.get("qualified"))).containsExactly("d2", "d4");
+        assertThat(directors).containsEntry("cutoffApprove", 7L).containsEntry("candidateCount", 4);
+        assertThat(directors.get("tie")).isNull();
+    }
+
+    @Test
+    void reportsATieThatExceedsTheRemainingSeats() {
+        load(Map.of("d1", 9L, "d2", 5L, "d3", 5L, "d4", 5L, "d5", 1L));
+
+        Map<String, Object> directors = directors(service.preview(ELECTION, 2, 0));
+
+        assertThat(ids(directors.get("qualified"))).containsExactly("d1");
+        assertThat(directors).containsEntry("cutoffApprove", 5L);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tie = (Map<String, Object>) directors.get("tie");
+        assertThat(tie).containsEntry("approveCount", 5L).containsEntry("seats", 1);
+        assertThat(ids(tie.get("candidates"))).containsExactlyInAnyOrder("d2", "d3", "d4");
+    }
+
+    @Test
+    void qualifiesATieThatFitsTheRemainingSeats() {
+        load(Map.of("d1", 9L, "d2", 5L, "d3", 5L, "d4", 2L));
+
+        Map<String, Object> directors = directors(service.preview(ELECTION, 3, 0));
+
+        assertThat(ids(directors.get("qualified"))).containsExactlyInAnyOrder("d1", "d2", "d3");
+        assertThat(ids(directors.get("qualified")).get(0)).isEqualTo("d1");
+        assertThat(directors.get("tie")).isNull();
+    }
+
+    @Test
+    void qualifiesEveryoneWhenSeatsExceedCandidates() {
+        load(Map.of("d1", 1L, "m1", 3L, "m2", 8L));
+
+        Map<String, Object> result = service.preview(ELECTION, 0, 5);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> managers = (Map<String, Object>) result.get("managers");
+        assertThat(ids(managers.get("qualified"))).containsExactly("m2", "m1");
+        assertThat(managers.get("cutoffApprove")).isNull();
+        assertThat(ids(directors(result).get("qualified"))).isEmpty();
+        assertThat(result).containsEntry("voterCount", 42L);
+    }
+
+    private void load(Map<String, Long> scores) {
+        approvals.putAll(scores);
+        List<Candidate> candidates = new ArrayList<>();
+        scores.keySet().stream().sorted().forEach(id -> {
+            Candidate c = new Candidate();
+            c.setId(id);
+            c.setName("候选人" + id);
+            c.setCategory(id.startsWith("m") ? Candidate.Category.manager : Candidate.Category.director);
+            candidates.add(c);
+        });
+        when(candidateCatalog.get(ELECTION)).thenReturn(new CandidateCatalog.Snapshot(1, candidates));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> directors(Map<String, Object> result) {
+        return (Map<String, Object>) result.get("directors");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> ids(Object views) {
+        return ((List<Map<String, Object>>) views).stream().map(v -> (String) v.get("id")).toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.vote.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubmitAdmissionControllerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void admitsUpToTheLimitAndQueuesTheRest() throws Exception {
+        SubmitAdmissionController controller = controller(1, 10, 5000, 10_000);
+        SubmitAdmissionController.Permit first = controller.acquire();
+        assertThat(first.isAdmitted()).isTrue();
+
+        Future<SubmitAdmissionController.Permit> queued = executor.submit(controller::acquire);
+        awaitQueueDepth(controller, 1);
+        assertThat(queued.isDone()).isFalse();
+
+        controller.release(first);
+
+        assertThat(queued.get(2, TimeUnit.SECONDS).outcome()).isEqualTo(SubmitAdmissionController.Outcome.admitted);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        SubmitAdmissionController controller = controller(1, 1, 5000, 10_000);
+        SubmitAdmissionController.Permit first = controller.acquire();
+        Future<SubmitAdmissionController.Permit> queued = executor.submit(controller::acquire);
+        awaitQueueDepth(controller, 1);
+
+        SubmitAdmissionController.Permit rejected = controller.acquire();
+
+        assertThat(rejected.outcome()).isEqualTo(SubmitAdmissionController.Outcome.queue_full);
+        assertThat(rejected.retryAfterSeconds()).isPositive();
+        assertThat(controller.getMetrics()).containsEntry("rejectedQueueFull", 1L);
+        controller.release(first);
+        assertThat(queued.get(2, TimeUnit.SECONDS).isAdmitted()).isTrue();
+    }
+
+    @Test
+    void timesOutWhenNoPermitFreesUp() {
+        SubmitAdmissionController controller = controller(1, 10, 50, 10_000);
+        controller.acquire();
+
+        SubmitAdmissionController.Permit timedOut = controller.acquire();
+
+        assertThat(timedOut.outcome()).isEqualTo(SubmitAdmissionController.Outcome.timeout);
+        assertThat(timedOut.retryAfterSeconds()).isPositive();
+        assertThat(controller.getMetrics()).containsEntry("rejectedTimeout", 1L).containsEntry("queueDepth", 0);
+    }
+
+    @Test
+    void releasingAPermitThatWasNotAdmittedIsANoOp() {
+        SubmitAdmissionController controller = controller(1, 0, 50, 10_000);
+        SubmitAdmissionController.Permit first = controller.acquire();
+        SubmitAdmissionController.Permit rejected = controller.acquire();
+
+        controller.release(rejected);
+
+        assertThat(controller.getMetrics()).containsEntry("inFlight", 1);
+        controller.release(first);
+        assertThat(controller.getMetrics()).containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void shrinksTheLimitWhenSubmitsAreSlow() {
+        SubmitAdmissionController controller = controller(10, 10, 50, 0);
+
+        controller.release(controller.acquire());
+
+        assertThat(controller.getMetrics()).containsEntry("limit", 9);
+    }
+
+    @Test
+    void growsTheLimitWhenSaturatedAndFast() {
+        SubmitAdmissionController controller = controller(1, 0, 50, 10_000);
+
+        controller.release(controller.acquire());
+
+        assertThat(controller.getMetrics()).containsEntry("limit", 2);
+        assertThat(controller.acquire().isAdmitted()).isTrue();
+        assertThat(controller.acquire().isAdmitted()).isTrue();
+        assertThat(controller.acquire().outcome()).isEqualTo(SubmitAdmissionController.Outcome.queue_full);
+    }
+
+    @Test
+    void wakesEveryWaiterTheGrownLimitCanAdmit() throws Exception {
+        SubmitAdmissionController controller = controller(1, 10, 3000, 10_000);
+        SubmitAdmissionController.Permit first = controller.acquire();
+        Future<SubmitAdmissionController.Permit> a = executor.submit(controller::acquire);
+        Future<SubmitAdmissionController.Permit> b = executor.submit(controller::acquire);
+        awaitQueueDepth(controller, 2);
+
+        // 跑满时快速完成，上限从 1 增至 2，两个排队者都应被放行
+        controller.release(first);
+
+        assertThat(a.get(1, TimeUnit.SECONDS).isAdmitted()).isTrue();
+        assertThat(b.get(1, TimeUnit.SECONDS).isAdmitted()).isTrue();
+        assertThat(controller.getMetrics()).containsEntry("inFlight", 2);
+    }
+
+    private static SubmitAdmissionController controller(int poolSize, int maxQueue, long maxWaitMs, long targetLatencyMs) {
+        SubmitAdmissionController controller = new SubmitAdmissionController();
+        ReflectionTestUtils.setField(controller, "poolSize", poolSize);
+        ReflectionTestUtils.setField(controller, "maxLimit", 40);
+        ReflectionTestUtils.setField(controller, "maxQueue", maxQueue);
+        ReflectionTestUtils.setField(controller, "maxWaitMs", maxWaitMs);
+        ReflectionTestUtils.setField(controller, "targetLatencyMs", targetLatencyMs);
+        controller.init();
+        return controller;
+    }
+
+    private static void awaitQueueDepth(SubmitAdmissionController controller, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!Integer.valueOf(depth).equals(controller.getMetrics().get("queueDepth"))) {
+            assertThat(System.nanoTime()).as("排队人数未达到 %d", depth).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.vote.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SubmitIdempotencyCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void replaysTheCachedResultForTheSameKey() {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+
+        String first = cache.execute("1:k", "fp", () -> "ok-" + calls.incrementAndGet(), r -> true);
+        String replay = cache.execute("1:k", "fp", () -> "ok-" + calls.incrementAndGet(), r -> true);
+
+        assertThat(replay).isEqualTo(first).isEqualTo("ok-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void rejectsTheSameKeyWithADifferentFingerprint() {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+        cache.execute("1:k", "fp", () -> "ok", r -> true);
+
+        assertThatThrownBy(() -> cache.execute("1:k", "other", () -> "ok", r -> true))
+                .isInstanceOf(SubmitIdempotencyCache.KeyConflictException.class);
+    }
+
+    @Test
+    void doesNotCacheResultsThatAreNotReusable() {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+
+        cache.execute("1:k", "fp", () -> "failed-" + calls.incrementAndGet(), r -> false);
+        String retried = cache.execute("1:k", "fp", () -> "ok-" + calls.incrementAndGet(), r -> true);
+
+        assertThat(retried).isEqualTo("ok-2");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesAfterTheFirstAttemptThrows() {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+
+        assertThatThrownBy(() -> cache.execute("1:k", "fp", () -> {
+            throw new IllegalStateException("数据库不可用");
+        }, r -> true)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.execute("1:k", "fp", () -> "ok", r -> true)).isEqualTo("ok");
+    }
+
+    @Test
+    void duplicateInFlightRequestWaitsForTheFirstResult() throws Exception {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> cache.execute("1:k", "fp", () -> {
+            started.countDown();
+            await(proceed);
+            return "ok-" + calls.incrementAndGet();
+        }, r -> true));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+        Future<String> duplicate = executor.submit(() -> cache.execute("1:k", "fp", () -> "ok-" + calls.incrementAndGet(), r -> true));
+        proceed.countDown();
+
+        assertThat(first.get(2, TimeUnit.SECONDS)).isEqualTo("ok-1");
+        assertThat(duplicate.get(2, TimeUnit.SECONDS)).isEqualTo("ok-1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void clearRemovesOnlyKeysWithThePrefix() {
+        SubmitIdempotencyCache cache = cache(100, 10_000);
+        cache.execute("1:a", "fp", () -> "a", r -> true);
+        cache.execute("1:b", "fp", () -> "b", r -> true);
+        cache.execute("2:a", "fp", () -> "c", r -> true);
+
+        cache.clear("1:");
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.execute("1:a", "fp", () -> "fresh", r -> true)).isEqualTo("fresh");
+        assertThat(cache.execute("2:a", "fp", () -> "fresh", r -> true)).isEqualTo("c");
+    }
+
+    @Test
+    void evictsTheOldestEntriesOverTheLimit() {
+        SubmitIdempotencyCache cache = cache(2, 10_000);
+        cache.execute("1:a", "fp", () -> "a", r -> true);
+        cache.execute("1:b", "fp", () -> "b", r -> true);
+        cache.execute("1:c", "fp", () -> "c", r -> true);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.execute("1:a", "fp", () -> "fresh", r -> true)).isEqualTo("fresh");
+    }
+
+    @Test
+    void sweepRemovesExpiredEntries() {
+        SubmitIdempotencyCache cache = cache(100, 0);
+        cache.execute("1:a", "fp", () -> "a", r -> true);
+
+        cache.sweep();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private static SubmitIdempotencyCache cache(int maxEntries, long ttlMs) {
+        SubmitIdempotencyCache cache = new SubmitIdempotencyCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "ttlMs", ttlMs);
+        ReflectionTestUtils.setField(cache, "waitMs", 2000L);
+        return cache;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
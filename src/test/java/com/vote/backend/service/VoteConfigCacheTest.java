@@ -0,0 +1,94 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.event.CandidatesChangedEvent;
+import com.vote.backend.event.ElectionEpochChangedEvent;
+import com.vote.backend.repository.VoteConfigRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoteConfigCacheTest {
+
+    private final VoteConfigRepository voteConfigRepository = mock(VoteConfigRepository.class);
+    private final List<Object> events = new ArrayList<>();
+    private final VoteConfigCache cache = new VoteConfigCache(voteConfigRepository, events::add);
+
+    @Test
+    void loadsAMissingElectionOnce() {
+        when(voteConfigRepository.findById(1)).thenReturn(Optional.of(config(VoteConfig.Status.round1_voting, 1, 0)));
+
+        VoteConfigSnapshot first = cache.get(1);
+
+        assertThat(first.getCurrentStatus()).isEqualTo(VoteConfig.Status.round1_voting);
+        assertThat(cache.get(1)).isSameAs(first);
+        assertThatThrownBy(() -> cache.get(9)).isInstanceOf(ElectionNotFoundException.class);
+    }
+
+    @Test
+    void missDoesNotOverwriteASnapshotPublishedDuringTheRead() {
+        // 读取期间管理端保存并发布了新配置，读到的是保存前的行
+        when(voteConfigRepository.findById(1)).thenAnswer(invocation -> {
+            cache.publish(config(VoteConfig.Status.round1_ended, 1, 0));
+            return Optional.of(config(VoteConfig.Status.round1_voting, 1, 0));
+        });
+
+        assertThat(cache.get(1).getCurrentStatus()).isEqualTo(VoteConfig.Status.round1_ended);
+        assertThat(cache.get(1).getCurrentStatus()).isEqualTo(VoteConfig.Status.round1_ended);
+    }
+
+    @Test
+    void refreshDoesNotOverwriteASnapshotPublishedDuringTheRead() {
+        cache.publish(config(VoteConfig.Status.round1_voting, 1, 0));
+        when(voteConfigRepository.findAllById(any())).thenAnswer(invocation -> {
+            cache.publish(config(VoteConfig.Status.round1_ended, 1, 0));
+            return List.of(config(VoteConfig.Status.round1_voting, 1, 0));
+        });
+
+        cache.refresh();
+
+        assertThat(cache.get(1).getCurrentStatus()).isEqualTo(VoteConfig.Status.round1_ended);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void refreshPublishesEpochAndCandidateChangesFromOtherInstances() {
+        cache.publish(config(VoteConfig.Status.round2_ended, 1, 0));
+        long version = cache.get(1).getVersion();
+        when(voteConfigRepository.findAllById(any())).thenReturn(List.of(config(VoteConfig.Status.not_started, 2, 3)));
+
+        cache.refresh();
+
+        assertThat(cache.get(1).getVersion()).isGreaterThan(version);
+        assertThat(cache.get(1).getCurrentEpoch()).isEqualTo(2);
+        assertThat(events).containsExactly(new ElectionEpochChangedEvent(1), new CandidatesChangedEvent(1));
+    }
+
+    @Test
+    void refreshKeepsTheVersionWhenNothingChanged() {
+        VoteConfigSnapshot published = cache.publish(config(VoteConfig.Status.round1_voting, 1, 0));
+        when(voteConfigRepository.findAllById(any())).thenReturn(List.of(config(VoteConfig.Status.round1_voting, 1, 0)));
+
+        cache.refresh();
+
+        assertThat(cache.get(1)).isSameAs(published);
+        assertThat(events).isEmpty();
+    }
+
+    private static VoteConfig config(VoteConfig.Status status, int epoch, long candidatesVersion) {
+        VoteConfig config = new VoteConfig();
+        config.setId(1);
+        config.setCurrentStatus(status);
+        config.setCurrentEpoch(epoch);
+        config.setCandidatesVersion(candidatesVersion);
+        return config;
+    }
+}
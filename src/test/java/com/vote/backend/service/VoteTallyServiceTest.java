@@ -0,0 +1,112 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.entity.VoteRecord;
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.repository.VoteRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VoteTallyServiceTest {
+
+    private final VoteConfigCache voteConfigCache = new VoteConfigCache(null, null);
+    private final VoteRecordRepository voteRecordRepository = mock(VoteRecordRepository.class);
+
+    private VoteTallyService voteTallyService;
+
+    @BeforeEach
+    void setUp() {
+        VoteConfig config = new VoteConfig();
+        config.setId(1);
+        config.setCurrentEpoch(2);
+        voteConfigCache.publish(config);
+        voteTallyService = new VoteTallyService(voteRecordRepository,
+                new PackedBallotStore(null, null, null, voteConfigCache), new CandidateTallyStore(null), voteConfigCache,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void countsCommittedBallotsOfTheLoadedEpoch() {
+        voteTallyService.ensureLoaded(1);
+
+        voteTallyService.onBallotCommitted(new BallotCommittedEvent(1, 2, "v1", 1, Map.of("c1", VoteRecord.VoteType.approve)));
+
+        assertThat(voteTallyService.getApproveCount(1, 1, "c1")).isEqualTo(1);
+        assertThat(voteTallyService.getVoterCount(1, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresBallotsCommittedForAnEarlierEpoch() {
+        voteTallyService.ensureLoaded(1);
+        long version = voteTallyService.getVersion(1);
+
+        // 重置前通过校验、重置后才提交的选票
+        voteTallyService.onBallotCommitted(new BallotCommittedEvent(1, 1, "v1", 1, Map.of("c1", VoteRecord.VoteType.approve)));
+
+        assertThat(voteTallyService.getApproveCount(1, 1, "c1")).isZero();
+        assertThat(voteTallyService.getVoterCount(1, 1)).isZero();
+        assertThat(voteTallyService.getVersion(1)).isEqualTo(version);
+    }
+
+    @Test
+    void countsBallotsCommittedWhileTheLoadIsRunning() {
+        when(voteRecordRepository.findDistinctVoterIdsByRound(1, 2, (byte) 1)).thenReturn(List.of("v1"));
+        when(voteRecordRepository.countAllVotesByRound(1, 2, (byte) 1)).thenAnswer(invocation -> {
+            // 加载读完快照后才提交的选票
+            voteTallyService.onBallotCommitted(new BallotCommittedEvent(1, 2, "v2", 1, Map.of("c1", VoteRecord.VoteType.approve)));
+            return rows(new Object[]{"c1", "approve", 1L});
+        });
+
+        voteTallyService.ensureLoaded(1);
+
+        assertThat(voteTallyService.getApproveCount(1, 1, "c1")).isEqualTo(2);
+        assertThat(voteTallyService.getVoterCount(1, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotRecountBallotsAlreadyInTheLoadedSnapshot() {
+        when(voteRecordRepository.findDistinctVoterIdsByRound(1, 2, (byte) 1)).thenReturn(List.of("v1"));
+        when(voteRecordRepository.countAllVotesByRound(1, 2, (byte) 1)).thenAnswer(invocation -> {
+            // 快照已包含该选票，提交事件在加载期间才到达
+            voteTallyService.onBallotCommitted(new BallotCommittedEvent(1, 2, "v1", 1, Map.of("c1", VoteRecord.VoteType.approve)));
+            return rows(new Object[]{"c1", "approve", 1L});
+        });
+
+        voteTallyService.ensureLoaded(1);
+
+        assertThat(voteTallyService.getApproveCount(1, 1, "c1")).isEqualTo(1);
+        assertThat(voteTallyService.getVoterCount(1, 1)).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotPublishALoadInterruptedByAReset() {
+        when(voteRecordRepository.countAllVotesByRound(1, 2, (byte) 1))
+                .thenAnswer(invocation -> {
+                    voteTallyService.reset(1);
+                    return rows(new Object[]{"c1", "approve", 1L});
+                })
+                .thenReturn(List.of());
+
+        voteTallyService.ensureLoaded(1);
+        voteTallyService.ensureLoaded(1);
+
+        // 重置前读到的计数被丢弃，第二次访问重新加载
+        verify(voteRecordRepository, times(2)).countAllVotesByRound(1, 2, (byte) 1);
+        assertThat(voteTallyService.getApproveCount(1, 1, "c1")).isZero();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+}
@@ -0,0 +1,103 @@
+package com.vote.backend.service;
+
+import com.vote.backend.entity.VoteConfig;
+import com.vote.backend.event.BallotCommittedEvent;
+import com.vote.backend.repository.VoteRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoterIndexServiceTest {
+
+    private VoteRecordRepository voteRecordRepository;
+    private VoterIndexService voterIndexService;
+    private VoteConfigCache voteConfigCache;
+
+    @BeforeEach
+    void setUp() {
+        voteConfigCache = new VoteConfigCache(null, null);
+        for (int electionId : new int[]{1, 2}) {
+            VoteConfig config = new VoteConfig();
+            config.setId(electionId);
+            voteConfigCache.publish(config);
+        }
+        voteRecordRepository = mock(VoteRecordRepository.class);
+        when(voteRecordRepository.findDistinctVoterIdsByRound(anyInt(), anyInt(), any())).thenReturn(List.of());
+        when(voteRecordRepository.findDistinctVoterIdsByRound(eq(1), eq(1), eq((byte) 1))).thenReturn(List.of("stored"));
+        voterIndexService = new VoterIndexService(voteRecordRepository,
+                new PackedBallotStore(null, null, null, voteConfigCache), voteConfigCache);
+    }
+
+    @Test
+    void loadsStoredVotersOnFirstAccess() {
+        assertThat(voterIndexService.hasVoted(1, "stored", 1)).isTrue();
+        assertThat(voterIndexService.hasVoted(1, "stored", 2)).isFalse();
+        assertThat(voterIndexService.hasVoted(2, "stored", 1)).isFalse();
+    }
+
+    @Test
+    void marksEachVoterOnlyOncePerRound() {
+        assertThat(voterIndexService.tryMarkVoted(1, "v1", 1)).isTrue();
+        assertThat(voterIndexService.tryMarkVoted(1, "v1", 1)).isFalse();
+        assertThat(voterIndexService.tryMarkVoted(1, "v1", 2)).isTrue();
+        assertThat(voterIndexService.tryMarkVoted(2, "v1", 1)).isTrue();
+        assertThat(voterIndexService.tryMarkVoted(1, "stored", 1)).isFalse();
+    }
+
+    @Test
+    void unmarkReleasesTheVoter() {
+        voterIndexService.tryMarkVoted(1, "v1", 1);
+        voterIndexService.unmark(1, "v1", 1);
+
+        assertThat(voterIndexService.hasVoted(1, "v1", 1)).isFalse();
+        assertThat(voterIndexService.tryMarkVoted(1, "v1", 1)).isTrue();
+    }
+
+    @Test
+    void committedBallotsAreIndexedOnlyForLoadedElections() {
+        voterIndexService.hasVoted(1, "stored", 1);
+
+        voterIndexService.onBallotCommitted(new BallotCommittedEvent(1, 1, "v1", 1, Map.of()));
+        voterIndexService.onBallotCommitted(new BallotCommittedEvent(2, 1, "v2", 1, Map.of()));
+
+        assertThat(voterIndexService.hasVoted(1, "v1", 1)).isTrue();
+        // 选举 2 尚未加载，首次访问时从数据库读取（桩数据中没有 v2）
+        assertThat(voterIndexService.loadedElections()).containsExactly(1);
+        assertThat(voterIndexService.hasVoted(2, "v2", 1)).isFalse();
+    }
+
+    @Test
+    void committedBallotsFromAnEarlierEpochAreIgnored() {
+        voterIndexService.hasVoted(2, "v1", 1);
+        VoteConfig advanced = new VoteConfig();
+        advanced.setId(2);
+        advanced.setCurrentEpoch(2);
+        voteConfigCache.publish(advanced);
+
+        // 重置前通过校验、重置后才提交的选票属于旧批次
+        voterIndexService.onBallotCommitted(new BallotCommittedEvent(2, 1, "v1", 1, Map.of()));
+        voterIndexService.onBallotCommitted(new BallotCommittedEvent(2, 2, "v2", 1, Map.of()));
+
+        assertThat(voterIndexService.hasVoted(2, "v1", 1)).isFalse();
+        assertThat(voterIndexService.hasVoted(2, "v2", 1)).isTrue();
+    }
+
+    @Test
+    void resetReloadsFromDatabase() {
+        voterIndexService.tryMarkVoted(1, "v1", 1);
+
+        voterIndexService.reset(1);
+
+        assertThat(voterIndexService.hasVoted(1, "v1", 1)).isFalse();
+        assertThat(voterIndexService.hasVoted(1, "stored", 1)).isTrue();
+    }
+}
@@ -0,0 +1,112 @@
+-- 演练用嵌入式数据库表结构（H2 MySQL 模式），与线上 vote_system 库保持一致
+
+CREATE TABLE IF NOT EXISTS election (
+    id         INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    created_at DATETIME
+);
+
+CREATE TABLE IF NOT EXISTS candidate (
+    id                  VARCHAR(64)  NOT NULL PRIMARY KEY,
+    election_id         INT          NOT NULL DEFAULT 1,
+    name                VARCHAR(100) NOT NULL,
+    title               VARCHAR(200),
+    description         TEXT,
+    pdf_url             VARCHAR(500),
+    category            VARCHAR(20)  NOT NULL,
+    is_round2_qualified BOOLEAN      DEFAULT FALSE,
+    created_at          DATETIME,
+    updated_at          DATETIME,
+    INDEX idx_candidate_election (election_id)
+);
+
+CREATE TABLE IF NOT EXISTS vote_config (
+    id                          INT         NOT NULL PRIMARY KEY,
+    round1_director_max_approve INT,
+    round1_manager_max_approve  INT,
+    round2_director_max_approve INT,
+    round2_manager_max_approve  INT,
+    director_qualify_count      INT,
+    manager_qualify_count       INT,
+    director_elect_count        INT,
+    manager_elect_count         INT,
+    current_status              VARCHAR(20),
+    current_epoch               INT         NOT NULL DEFAULT 1,
+    candidates_version          BIGINT      NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS vote_record (
+    id           VARCHAR(64)  NOT NULL,
+    election_id  INT          NOT NULL DEFAULT 1,
+    epoch        INT          NOT NULL DEFAULT 1,
+    voter_id     VARCHAR(100) NOT NULL,
+    candidate_id VARCHAR(64)  NOT NULL,
+    round        TINYINT      NOT NULL,
+    vote_type    VARCHAR(10)  NOT NULL,
+    created_at   DATETIME,
+    PRIMARY KEY (election_id, epoch, id),
+    UNIQUE KEY uk_vote_record_election_epoch_voter_candidate_round (election_id, epoch, voter_id, candidate_id, round)
+);
+
+CREATE TABLE IF NOT EXISTS admin_user (
+    id       INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50)  NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ballot_layout (
+    election_id   INT          NOT NULL,
+    version       INT          NOT NULL,
+    candidate_ids MEDIUMTEXT   NOT NULL,
+    created_at    DATETIME,
+    PRIMARY KEY (election_id, version)
+);
+
+CREATE TABLE IF NOT EXISTS packed_ballot (
+    id             BIGINT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    election_id    INT             NOT NULL DEFAULT 1,
+    epoch          INT             NOT NULL DEFAULT 1,
+    voter_id       VARCHAR(100)    NOT NULL,
+    round          TINYINT         NOT NULL,
+    layout_version INT             NOT NULL,
+    choices        BLOB            NOT NULL,
+    created_at     DATETIME,
+    UNIQUE KEY uk_packed_ballot_election_epoch_voter_round (election_id, epoch, voter_id, round)
+);
+
+CREATE TABLE IF NOT EXISTS election_archive (
+    id            BIGINT      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    election_id   INT         NOT NULL,
+    epoch         INT         NOT NULL,
+    final_status  VARCHAR(20),
+    round1_voters BIGINT,
+    round2_voters BIGINT,
+    archived_at   DATETIME,
+    UNIQUE KEY uk_election_archive_election_epoch (election_id, epoch)
+);
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id      TINYINT NOT NULL PRIMARY KEY,
+    beat_ms BIGINT  NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS candidate_tally (
+    election_id  INT         NOT NULL,
+    epoch        INT         NOT NULL,
+    round        TINYINT     NOT NULL,
+    candidate_id VARCHAR(64) NOT NULL,
+    vote_type    VARCHAR(10) NOT NULL,
+    shard        SMALLINT    NOT NULL,
+    cnt          BIGINT      NOT NULL,
+    PRIMARY KEY (election_id, epoch, round, candidate_id, vote_type, shard)
+);
+
+-- 可重复执行：读写分离演练中作为副本库的 INIT 脚本，每个新连接都会执行一次
+INSERT IGNORE INTO election (id, name, created_at) VALUES (1, '默认选举', CURRENT_TIMESTAMP);
+ALTER TABLE election ALTER COLUMN id RESTART WITH 2;
+
+INSERT IGNORE INTO vote_config (id, round1_director_max_approve, round1_manager_max_approve,
+                         round2_director_max_approve, round2_manager_max_approve,
+                         director_qualify_count, manager_qualify_count,
+                         director_elect_count, manager_elect_count, current_status)
+VALUES (1, 60, 15, 40, 10, 60, 15, 40, 10, 'not_started');